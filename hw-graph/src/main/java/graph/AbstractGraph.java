@@ -0,0 +1,396 @@
+package graph;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * AbstractGraph is a mutable directed graph with labeled edges, the operations
+ * shared by Graph and ConcurrentGraph. Nodes are of type T and edge labels of
+ * type E. A graph cannot contain duplicate nodes, and no two edges that share a
+ * parent and child node have the same label. Nodes, labels and edges cannot be
+ * null. Edges can start and end at the same node.
+ * Code that only reads and searches a graph takes an AbstractGraph, so it works on
+ * either kind. Each subclass keeps its nodes and edges in its own rep; this class
+ * keeps none, so it has no rep invariant or abstraction function of its own.
+ * Only classes in this package can extend it.
+ */
+public abstract class AbstractGraph<T, E> {
+
+    /**
+     * Constructs a graph, for the subclasses in this package
+     */
+    AbstractGraph() {
+    }
+
+    /**
+     * Adds a node to the graph
+     * @param nodeName is the node being added
+     * @spec.requires nodeName != null and does not already exist
+     * @spec.effects adds a new node to the graph
+     * @spec.modifies this graph by adding a node
+     * @throws IllegalArgumentException if nodeName is null or already exists
+     */
+    public abstract void addNode(T nodeName);
+
+    /**
+     * Adds an edge to the graph from parent to child with a label
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @spec.requires parent and child exist in the graph, parent, child, and label != null
+     * @spec.effects adds a new edge with parent and child node labeled with label
+     * @spec.modifies this graph by adding an edge with nodes
+     * @throws IllegalArgumentException if any argument is null, the graph does not
+     * contain either parent or child, or there already is an edge from parent to child
+     * with label
+     */
+    public abstract void addEdge(T parent, T child, E label);
+
+    /**
+     * Removes a node from the graph, along with every edge that starts or ends at it
+     * @param node is the node being removed
+     * @spec.requires node != null and node exists in the graph
+     * @spec.effects removes node and all of its incoming and outgoing edges
+     * @spec.modifies this graph by removing a node and edges
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    public abstract void removeNode(T node);
+
+    /**
+     * Removes one edge from parent to child with the given label
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @spec.requires parent, child, and label != null, parent and child exist in the graph
+     * @spec.effects removes one edge from parent to child labeled with label, if there is one
+     * @spec.modifies this graph by removing an edge
+     * @return true if an edge was removed, false if there was no such edge
+     * @throws IllegalArgumentException if any argument is null or the graph does not
+     * contain either parent or child
+     */
+    public abstract boolean removeEdge(T parent, T child, E label);
+
+    /**
+     * Returns all the nodes in the graph
+     * @return set of Nodes in graph, empty if no nodes
+     */
+    public abstract Set<T> listNodes();
+
+    /**
+     * Returns all children of the given node within the graph
+     * @param parent is the current node calling for the child
+     * @spec.requires parent != null
+     * @return set of all children to the parent node, empty if no children
+     * @throws IllegalArgumentException if graph does not contain given parent node
+     */
+    public abstract Set<T> listChildren(T parent);
+
+    /**
+     * Returns all parents of the given node within the graph, that is every
+     * node with an edge to it
+     * @param child is the node whose parents are listed
+     * @spec.requires child != null
+     * @return set of all parents of the child node, empty if no parents
+     * @throws IllegalArgumentException if child is null or the graph does not contain it
+     */
+    public abstract Set<T> listParents(T child);
+
+    /**
+     * Returns all edges of the given node within the graph
+     * @param node to get all the Edges from
+     * @spec.requires node != null
+     * @return set if all edges to the given node, empty if no edges
+     * @throws IllegalArgumentException if node is null or the graph does not contain it
+     */
+    public abstract Set<Edge<T, E>> listEdges(T node);
+
+    /**
+     * Returns a read-only view of all the nodes in the graph. Unlike listNodes,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @return unmodifiable live set of the nodes in the graph
+     */
+    public abstract Set<T> nodesView();
+
+    /**
+     * Returns a read-only view of the children of the given node. Unlike listChildren,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @param parent the node whose children are viewed
+     * @spec.requires parent != null
+     * @return unmodifiable live set of the children of parent
+     * @throws IllegalArgumentException if parent is null or not in the graph
+     */
+    public abstract Set<T> childrenView(T parent);
+
+    /**
+     * Returns a read-only view of the parents of the given node. Unlike listParents,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @param child the node whose parents are viewed
+     * @spec.requires child != null
+     * @return unmodifiable live set of the parents of child
+     * @throws IllegalArgumentException if child is null or not in the graph
+     */
+    public abstract Set<T> parentsView(T child);
+
+    /**
+     * Returns a read-only view of the edges of the given node. Unlike listEdges,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @param node to get all the Edges from
+     * @spec.requires node != null
+     * @return unmodifiable live set of the edges starting at node
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    public abstract Set<Edge<T, E>> edgesView(T node);
+
+    /**
+     * Passes every edge of the given node to action, without copying the edges.
+     * The graph must not be changed by action.
+     * @param node to get all the Edges from
+     * @param action called once for each edge starting at node
+     * @spec.requires node != null and action != null
+     * @throws IllegalArgumentException if node or action is null or node is not in the graph
+     */
+    public abstract void forEachEdge(T node, Consumer<? super Edge<T, E>> action);
+
+    /**
+     * Returns the number of edges between the parent node and the child node
+     * @param parent is the starting Node
+     * @param child is the ending Node
+     * @spec.requires parent, child != null
+     * @return the num of edges between parent and child node
+     * @throws IllegalArgumentException if parent or child is null or not in the graph
+     */
+    public abstract int totalNumEdges(T parent, T child);
+
+    /**
+     * Retrieves the labels for the parent and child nodes.
+     * @param parent node for parent label
+     * @param child node for child label
+     * @return a set of labels representing the edge between the parent and child
+     * @spec.requires both the parent and child are in the graph
+     * @throws IllegalArgumentException if parent or child is null or not in the graph
+     */
+    public abstract Set<E> getLabel(T parent, T child);
+
+    /**
+     * Returns the total number of nodes in the graph
+     * @return the number of nodes in the graph
+     */
+    public abstract int totalNodes();
+
+    /**
+     * Returns the total number of edges in the graph
+     * @return the number of edges in the graph
+     */
+    public abstract int totalEdges();
+
+    /**
+     * Returns if graph is empty or not
+     * @return true if graph has no nodes, false if graph has nodes
+     */
+    public abstract boolean isEmpty();
+
+    /**
+     * Clears the graph of all nodes and edges
+     * @spec.modifies this
+     */
+    public abstract void clear();
+
+    /**
+     * Checks if a given node is inside the graph
+     * @param node node to see if is in the graph
+     * @spec.requires node != null
+     * @return true if node is in the graph, false if not in the graph
+     * @throws IllegalArgumentException if node is null
+     */
+    public abstract boolean containsNode(T node);
+
+    /**
+     * Returns false if there is certainly no path from one node to another. A true
+     * answer only means a search may find a path.
+     * @param from the node a path would start at
+     * @param to the node a path would end at
+     * @spec.requires from != null and to != null
+     * @return false if no path leads from from to to, true if one may
+     * @throws IllegalArgumentException if from or to is null or not in the graph
+     */
+    public abstract boolean mayReach(T from, T to);
+
+    /**
+     * Returns the number of times this graph has been changed. Every change makes the
+     * version larger, so a result computed from the graph is still correct as long as
+     * the version it was computed at is still the version.
+     * @return the version of this graph
+     */
+    public abstract long version();
+
+    /**
+     * Returns an immutable point-in-time version of this graph. Later changes to this
+     * graph are not seen by the snapshot.
+     * @return a read-only graph with the current nodes and edges of this graph, whose
+     * mutating methods throw UnsupportedOperationException
+     */
+    public abstract Graph<T, E> snapshot();
+
+    /**
+     * Checks the whole rep invariant of this graph
+     * @throws IllegalStateException if the graph is broken
+     */
+    public abstract void validate();
+
+    /**
+     * Returns the order of the children of a node in a sorted graph
+     * @return the order this graph keeps children in, or null if it does not keep its
+     * edges sorted
+     */
+    public abstract Comparator<? super T> nodeOrder();
+
+    /**
+     * Returns the order of the labels between the same two nodes in a sorted graph
+     * @return the order this graph keeps labels in, or null if it does not keep its
+     * edges sorted
+     */
+    public abstract Comparator<? super E> labelOrder();
+
+    /**
+     * Creates an immutable, compact copy of this graph for read-only queries.
+     * Later changes to this graph are not seen by the returned graph. The edges of
+     * each node keep the order of edgesView, so those of a sorted graph stay sorted.
+     * @return an ImmutableGraph with the same nodes and edges as this graph
+     */
+    public final ImmutableGraph<T, E> freeze() {
+        // Only nodesView and edgesView are used here, so every kind of graph is frozen
+        // the same way. Edges to nodes that are not in the node snapshot (added by
+        // another thread meanwhile) are left out.
+        Object[] nodes = nodesView().toArray();
+        Map<Object, Integer> ids = new HashMap<>();
+        for (Object node : nodes) {
+            ids.put(node, ids.size());
+        }
+        // pack the edges of node i into [offsets[i], offsets[i + 1]), storing each
+        // distinct label once
+        Map<E, Integer> labelIds = new HashMap<>();
+        List<E> labels = new ArrayList<>();
+        int[] offsets = new int[nodes.length + 1];
+        int[] targets = new int[Math.max(totalEdges(), 1)];
+        int[] edgeLabels = new int[targets.length];
+        int edgeIndex = 0;
+        for (int id = 0; id < nodes.length; id++) {
+            offsets[id] = edgeIndex;
+            for (Edge<T, E> edge : edgesView(castNode(nodes[id]))) {
+                Integer child = ids.get(edge.getChild());
+                if (child != null) {
+                    if (edgeIndex == targets.length) {
+                        targets = Arrays.copyOf(targets, 2 * edgeIndex);
+                        edgeLabels = Arrays.copyOf(edgeLabels, 2 * edgeIndex);
+                    }
+                    Integer labelId = labelIds.get(edge.getLabel());
+                    if (labelId == null) {
+                        labelId = labels.size();
+                        labelIds.put(edge.getLabel(), labelId);
+                        labels.add(edge.getLabel());
+                    }
+                    targets[edgeIndex] = child;
+                    edgeLabels[edgeIndex] = labelId;
+                    edgeIndex++;
+                }
+            }
+        }
+        offsets[nodes.length] = edgeIndex;
+        return new ImmutableGraph<>(nodes, IntBuffer.wrap(offsets), IntBuffer.wrap(targets, 0, edgeIndex).slice(),
+                IntBuffer.wrap(edgeLabels, 0, edgeIndex).slice(), labels.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private T castNode(Object node) {
+        return (T) node;
+    }
+
+    /**
+     * Returns order, checking that it is not null
+     * @throws IllegalArgumentException if order is null
+     */
+    static <V> Comparator<V> checkOrder(Comparator<V> order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        return order;
+    }
+
+    /**
+     * This class represents a single, immutable edge. An edge points to
+     * an end node from starter node. Edges also store the label. Two edges
+     * are equal if they have equal parents, children and labels.
+     */
+    public static final class Edge<T, E> {
+        private final T parent;
+        private final T child;
+        private final E label;
+        /**
+         * Create edge with parent and child node and a label
+         * @param parent starting node
+         * @param child ending node
+         * @param label label of the edge
+         * @spec.requires child, parent, label != null
+         * @throws IllegalArgumentException if null
+         */
+        public Edge(T parent, T child, E label) {
+            if (parent == null) {
+                throw new IllegalArgumentException("The parent cannot be null");
+            } else if (child == null) {
+                throw new IllegalArgumentException("The child cannot be null");
+            } else if (label == null) {
+                throw new IllegalArgumentException("The label cannot be null");
+            } else {
+                this.parent = parent;
+                this.child = child;
+                this.label = label;
+            }
+        }
+
+        /**
+         * Return the parent of the edge
+         * @return parent of edge
+         */
+        public T getParent() {
+            return this.parent;
+        }
+
+        /**
+         * Return the child of the edge
+         * @return child of edge
+         */
+        public T getChild() {
+            return this.child;
+        }
+
+        /**
+         * Returns the label of the edge
+         * @return label of edge
+         */
+        public E getLabel() {
+            return this.label;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Edge<?, ?>)) {
+                return false;
+            }
+            Edge<?, ?> other = (Edge<?, ?>) obj;
+            return this.parent.equals(other.parent) && this.child.equals(other.child)
+                    && this.label.equals(other.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * this.parent.hashCode() + this.child.hashCode()) + this.label.hashCode();
+        }
+    }
+}
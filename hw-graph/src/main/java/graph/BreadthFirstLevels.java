@@ -0,0 +1,161 @@
+package graph;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * BreadthFirstLevels is a breadth-first search from one node that hands out its
+ * levels one at a time: first the start node at distance 0, then its children at
+ * distance 1, then the nodes first reached from those at distance 2, and so on. Each
+ * level is only found when it is asked for, so a caller that stops after a few levels
+ * only pays for exploring those, not the whole graph. The graph must not be changed
+ * while the levels are read.
+ */
+public class BreadthFirstLevels<T> implements Iterator<BreadthFirstLevels.Level<T>> {
+    private final AbstractGraph<T, ?> graph;
+    private final Set<T> reached = new HashSet<>();
+    // the last level handed out, or the start level before next() is first called
+    private Set<T> frontier;
+    private int distance;
+    // true if frontier has not been handed out by next() yet
+    private boolean pending = true;
+
+    // Rep Invariant:
+    // graph != null, reached != null, frontier != null and distance >= 0
+    // frontier is a subset of reached
+    //
+    // Abstract Function:
+    // BreadthFirstLevels b represents the levels of a search not handed out yet. If
+    // pending, they start with frontier at distance; otherwise they start with the
+    // nodes one step from frontier that are not in reached, at distance + 1. Each level
+    // after that holds the nodes one step from the level before it that no earlier
+    // level holds. The levels end before the first empty one.
+
+    /**
+     * Starts a search from start
+     * @param graph the graph to search
+     * @param start the node the search starts at
+     * @spec.effects constructs a search whose first level is start, at distance 0
+     * @throws IllegalArgumentException if graph or start is null or start is not in graph
+     */
+    public BreadthFirstLevels(AbstractGraph<T, ?> graph, T start) {
+        if (graph == null || start == null) {
+            throw new IllegalArgumentException("Graph and start node cannot be null");
+        } else if (!(graph.containsNode(start))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        this.graph = graph;
+        this.frontier = Collections.singleton(start);
+        this.reached.add(start);
+        this.distance = 0;
+        checkRep();
+    }
+
+    /**
+     * Returns the levels of a search from start as a lazy stream. Each level is found
+     * when the stream pulls it, so limit() or findFirst() stop the search early.
+     * @param graph the graph to search
+     * @param start the node the search starts at
+     * @param <T> the type of node
+     * @return the levels of the search, in order of distance
+     * @throws IllegalArgumentException if graph or start is null or start is not in graph
+     */
+    public static <T> Stream<Level<T>> stream(AbstractGraph<T, ?> graph, T start) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new BreadthFirstLevels<>(graph, start),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    /**
+     * Returns true if the search has another level, finding that level if it was not
+     * found yet
+     * @return true if there is a node that no earlier level holds one step past the last level
+     */
+    @Override
+    public boolean hasNext() {
+        checkRep();
+        if (!(this.pending)) {
+            Set<T> next = new LinkedHashSet<>();
+            for (T node : this.frontier) {
+                for (T child : this.graph.childrenView(node)) {
+                    if (this.reached.add(child)) {
+                        next.add(child);
+                    }
+                }
+            }
+            this.frontier = Collections.unmodifiableSet(next);
+            this.distance++;
+            this.pending = true;
+        }
+        checkRep();
+        return !(this.frontier.isEmpty());
+    }
+
+    /**
+     * Returns the next level of the search
+     * @return the nodes at the next distance from the start
+     * @spec.modifies this
+     * @throws NoSuchElementException if the search has no more levels
+     */
+    @Override
+    public Level<T> next() {
+        if (!(hasNext())) {
+            throw new NoSuchElementException();
+        }
+        this.pending = false;
+        return new Level<>(this.distance, this.frontier);
+    }
+
+    private void checkRep() {
+        assert (this.graph != null && this.reached != null) : "search state can't be null";
+        assert (this.frontier != null) : "frontier can't be null";
+        assert (this.distance >= 0) : "distance can't be negative";
+    }
+
+    /**
+     * A Level is the set of nodes a breadth-first search first reaches at one distance
+     * from its start. It is immutable.
+     */
+    public static final class Level<T> {
+        private final int distance;
+        private final Set<T> nodes;
+
+        /**
+         * @param distance the number of edges from the start to each node
+         * @param nodes the nodes of the level, not changed afterwards
+         * @spec.requires distance >= 0 and nodes != null
+         */
+        Level(int distance, Set<T> nodes) {
+            this.distance = distance;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Returns the distance of the level
+         * @return the number of edges on a shortest path from the start to each node of the level
+         */
+        public int getDistance() {
+            return this.distance;
+        }
+
+        /**
+         * Returns the nodes of the level, in the order the search reached them
+         * @return unmodifiable set of the nodes at this distance from the start
+         */
+        public Set<T> getNodes() {
+            return this.nodes;
+        }
+
+        @Override
+        public String toString() {
+            return this.distance + ": " + this.nodes;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ComponentIndex groups the nodes of a graph into weakly connected components, the
+ * groups of nodes joined by edges when the direction of the edges is ignored. Two
+ * nodes in different components have no path between them in either direction. It is
+ * a union-find structure: edges can be added one at a time, each in nearly O(1) time,
+ * but edges cannot be removed, so a graph that loses an edge has to build a new index.
+ */
+final class ComponentIndex<T> {
+    private final Map<T, Integer> ids;
+    private int[] parent;
+    private int[] size;
+    private int count = 0;
+
+    // Rep Invariant:
+    // ids != null, parent != null, size != null and parent.length == size.length
+    // 0 <= count <= parent.length
+    // the values of ids are exactly the ints in [0, count)
+    // 0 <= parent[i] < count for every i < count, and following parent from any i
+    // reaches a root r with parent[r] == r
+    // size[r] is the number of ids whose root is r, for every root r
+    //
+    // Abstract Function:
+    // ComponentIndex c represents a partition of the nodes that are keys of ids into
+    // components: nodes a and b are in the same component exactly when ids.get(a) and
+    // ids.get(b) reach the same root by following parent. Ids with no node in ids
+    // are used by componentsOf(ImmutableGraph), whose node ids are already ints.
+
+    /**
+     * Creates an index with no nodes
+     * @param expectedNodes the number of nodes the index is expected to hold
+     * @spec.requires expectedNodes >= 0
+     */
+    private ComponentIndex(int expectedNodes) {
+        this.ids = new HashMap<>();
+        this.parent = new int[Math.max(16, expectedNodes)];
+        this.size = new int[this.parent.length];
+    }
+
+    /**
+     * Returns an index of the components of graph, built from nodesView and childrenView
+     * in time proportional to the size of graph
+     * @param graph the graph to index
+     * @param <T> the type of node
+     * @return a new index of the nodes and edges of graph
+     * @spec.requires graph != null
+     */
+    static <T> ComponentIndex<T> of(Graph<T, ?> graph) {
+        ComponentIndex<T> index = new ComponentIndex<>(graph.totalNodes());
+        for (T node : graph.nodesView()) {
+            index.add(node);
+        }
+        for (T node : graph.nodesView()) {
+            for (T child : graph.childrenView(node)) {
+                index.union(node, child);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the component of every node id of graph, as the id of one node of the
+     * component, so nodes i and j are in the same component exactly when the values at
+     * i and j are equal
+     * @param graph the graph to index
+     * @return the component of each node id
+     * @spec.requires graph != null
+     */
+    static int[] componentsOf(ImmutableGraph<?, ?> graph) {
+        ComponentIndex<Void> index = new ComponentIndex<>(graph.totalNodes());
+        for (int id = 0; id < graph.totalNodes(); id++) {
+            index.newId();
+        }
+        for (int id = 0; id < graph.totalNodes(); id++) {
+            for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                index.unionIds(id, graph.target(edge));
+            }
+        }
+        int[] components = new int[graph.totalNodes()];
+        for (int id = 0; id < components.length; id++) {
+            components[id] = index.find(id);
+        }
+        return components;
+    }
+
+    /**
+     * Adds a node to the index, in a component of its own. Adding a node that is
+     * already in the index has no effect.
+     * @param node the node to add
+     * @spec.requires node != null
+     * @spec.modifies this
+     */
+    void add(T node) {
+        if (!(this.ids.containsKey(node))) {
+            this.ids.put(node, newId());
+        }
+    }
+
+    /**
+     * Joins the components of two nodes, as an edge between them does
+     * @param a one node
+     * @param b the other node
+     * @spec.requires a and b are in the index
+     * @spec.modifies this
+     */
+    void union(T a, T b) {
+        unionIds(this.ids.get(a), this.ids.get(b));
+    }
+
+    /**
+     * Returns true if two nodes are in the same component. Does not change the index,
+     * so an index that is no longer changed can be read by several threads at once.
+     * @param a one node
+     * @param b the other node
+     * @return true if a and b are in the index and in the same component
+     */
+    boolean connected(T a, T b) {
+        Integer idA = this.ids.get(a);
+        Integer idB = this.ids.get(b);
+        return idA != null && idB != null && root(idA) == root(idB);
+    }
+
+    /**
+     * Returns a new id in a component of its own
+     */
+    private int newId() {
+        if (this.count == this.parent.length) {
+            this.parent = Arrays.copyOf(this.parent, 2 * this.count);
+            this.size = Arrays.copyOf(this.size, 2 * this.count);
+        }
+        this.parent[this.count] = this.count;
+        this.size[this.count] = 1;
+        return this.count++;
+    }
+
+    /**
+     * Joins the components of two ids, hanging the smaller tree under the larger so
+     * no tree gets deeper than log of the number of ids
+     */
+    private void unionIds(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            if (this.size[rootA] < this.size[rootB]) {
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            this.parent[rootB] = rootA;
+            this.size[rootA] += this.size[rootB];
+        }
+    }
+
+    /**
+     * Returns the root of id, pointing every other id on the way at its grandparent
+     * so later finds are shorter
+     */
+    private int find(int id) {
+        while (this.parent[id] != id) {
+            this.parent[id] = this.parent[this.parent[id]];
+            id = this.parent[id];
+        }
+        return id;
+    }
+
+    /**
+     * Returns the root of id without changing the index
+     */
+    private int root(int id) {
+        while (this.parent[id] != id) {
+            id = this.parent[id];
+        }
+        return id;
+    }
+}
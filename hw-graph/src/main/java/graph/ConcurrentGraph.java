@@ -0,0 +1,593 @@
+package graph;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * ConcurrentGraph is a graph that can be shared between threads. Any number of
+ * threads may add nodes and edges at the same time while other threads read
+ * the graph. Reads never take a lock: nodes and edges are kept in concurrent hash
+ * maps (which only lock a single bin on update) and copy-on-write edge lists, so a
+ * reader always sees a consistent list of the edges between two nodes.
+ * Like Graph, it is an AbstractGraph, so it can be passed to any code that searches
+ * an AbstractGraph. Such a search sees the edges that were added before it reached a node.
+ * A sorted ConcurrentGraph keeps the edges of each node sorted like a sorted Graph;
+ * its readers still take no lock, but threads adding or removing edges of the same
+ * node take turns. Removing a node or clearing the graph waits for the changes in
+ * progress and holds up other changes until it is done; reads still go on meanwhile.
+ */
+public class ConcurrentGraph<T, E> extends AbstractGraph<T, E> {
+    private final ConcurrentMap<T, ConcurrentMap<T, CopyOnWriteArrayList<Edge<T, E>>>> nodes;
+    private final ConcurrentMap<T, Set<T>> parents;
+    private final LongAdder totalEdges;
+    // Edge order of a sorted graph, both null for a graph whose edges are not kept sorted
+    private final Comparator<? super T> nodeOrder;
+    private final Comparator<? super E> labelOrder;
+    // Number of changes made, see version(). Not part of the abstract value.
+    private final AtomicLong version = new AtomicLong();
+    // Held shared by addNode, addEdge and removeEdge, and exclusively by removeNode and
+    // clear, so no node is removed while another change is looking it up. Reads never take it.
+    private final ReadWriteLock removal = new ReentrantReadWriteLock();
+
+    // Rep Invariant:
+    // nodes != null, parents != null and totalEdges != null
+    // nodeOrder == null exactly when labelOrder == null
+    // every node and every edge != null
+    // graph must contain node if node is included in any edge of the graph
+    // totalEdges == total size of every edge list, whenever no edge is being added
+    // parents.get(b) contains a exactly when nodes.get(a) has an edge list for b
+    // if nodeOrder() != null, every child map is a ConcurrentSkipListMap in nodeOrder()
+    // and the edges of every edge list are in labelOrder()
+    //
+    // Abstract Function:
+    // ConcurrentGraph g represents the graph whose nodes are the keys of nodes.
+    // nodes.get(a).get(b) is the list of every edge from a to b, and parents.get(b)
+    // is the set of nodes with at least one edge to b. An edge list and the matching
+    // parents entry are only changed together, inside compute() on the edge list's key.
+    // compute() is only atomic on a ConcurrentHashMap, so in a sorted graph it is also
+    // run holding the lock of the child map. A change that finds a node in nodes holds
+    // removal shared until it is done, so the node and its parents set stay in the graph
+    // meanwhile; removeNode and clear hold removal exclusively.
+
+    /**
+     * Constructs a new graph
+     * @spec.effects constructs a new empty graph
+     */
+    public ConcurrentGraph() {
+        this.nodes = new ConcurrentHashMap<>();
+        this.parents = new ConcurrentHashMap<>();
+        this.totalEdges = new LongAdder();
+        this.nodeOrder = null;
+        this.labelOrder = null;
+        checkRep();
+    }
+
+    /**
+     * Constructs a new sorted graph, which keeps the edges of every node sorted by
+     * child in nodeOrder, then by label in labelOrder, like Graph(Comparator, Comparator)
+     * @param nodeOrder the order of the children of a node
+     * @param labelOrder the order of the labels between the same two nodes
+     * @spec.effects constructs a new empty sorted graph
+     * @throws IllegalArgumentException if nodeOrder or labelOrder is null
+     */
+    public ConcurrentGraph(Comparator<? super T> nodeOrder, Comparator<? super E> labelOrder) {
+        this.nodes = new ConcurrentHashMap<>();
+        this.parents = new ConcurrentHashMap<>();
+        this.totalEdges = new LongAdder();
+        this.nodeOrder = checkOrder(nodeOrder);
+        this.labelOrder = checkOrder(labelOrder);
+        checkRep();
+    }
+
+    /**
+     * Adds a node to the graph. Safe to call from several threads at once; if two
+     * threads add the same node, exactly one of them succeeds.
+     * @param nodeName is the node being added
+     * @spec.requires nodeName != null and does not already exist
+     * @spec.effects adds a new node to the graph
+     * @spec.modifies this graph by adding a node
+     * @throws IllegalArgumentException if nodeName is null or already exists
+     */
+    @Override
+    public void addNode(T nodeName) {
+        if (nodeName == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        ConcurrentMap<T, CopyOnWriteArrayList<Edge<T, E>>> children;
+        if (nodeOrder() == null) {
+            children = new ConcurrentHashMap<>();
+        } else {
+            children = new ConcurrentSkipListMap<>(nodeOrder());
+        }
+        this.removal.readLock().lock();
+        try {
+            // parents first, so an edge can never reach a node without a parents set
+            this.parents.putIfAbsent(nodeName, ConcurrentHashMap.newKeySet());
+            if (this.nodes.putIfAbsent(nodeName, children) != null) {
+                throw new IllegalArgumentException("Node already exists");
+            }
+            this.version.incrementAndGet();
+        } finally {
+            this.removal.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an edge to the graph from parent to child with a label. Safe to call
+     * from several threads at once.
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @spec.requires parent and child exist in the graph, parent, child, and label != null
+     * @spec.effects adds a new edge with parent and child node labeled with label
+     * @spec.modifies this graph by adding an edge with nodes
+     * @throws IllegalArgumentException if any argument is null, the graph does not
+     * contain either parent or child, or there already is an edge from parent to child
+     * with label
+     */
+    @Override
+    public void addEdge(T parent, T child, E label) {
+        if (parent == null || child == null || label == null) {
+            throw new IllegalArgumentException("Node and label cannot be null");
+        }
+        this.removal.readLock().lock();
+        try {
+            Map<T, CopyOnWriteArrayList<Edge<T, E>>> children = this.nodes.get(parent);
+            if (children == null) {
+                throw new IllegalArgumentException("Parent node is not found in the graph");
+            } else if (!(this.nodes.containsKey(child))) {
+                throw new IllegalArgumentException("Child node is not found in the graph");
+            }
+            Edge<T, E> edge = new Edge<>(parent, child, label);
+            update(children, () -> children.compute(child, (c, edges) -> {
+                if (edges == null) {
+                    edges = new CopyOnWriteArrayList<>();
+                    this.parents.get(child).add(parent);
+                } else if (edges.contains(edge)) {
+                    // thrown inside compute, which then leaves the edge list as it was
+                    throw new IllegalArgumentException("Edge already exists");
+                }
+                int index = edges.size();
+                if (labelOrder() != null) {
+                    // after any equal labels, so edges with the same label stay in the order added
+                    while (index > 0 && labelOrder().compare(edges.get(index - 1).getLabel(), label) > 0) {
+                        index--;
+                    }
+                }
+                edges.add(index, edge);
+                return edges;
+            }));
+            this.totalEdges.increment();
+            this.version.incrementAndGet();
+        } finally {
+            this.removal.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a node from the graph, along with every edge that starts or ends at it.
+     * Safe to call from several threads at once. Waits for the nodes and edges being
+     * added or removed by other threads, and other changes wait for it, but readers
+     * do not; a reader may see some of the edges of node gone and others not yet.
+     * @param node is the node being removed
+     * @spec.requires node != null and node exists in the graph
+     * @spec.effects removes node and all of its incoming and outgoing edges
+     * @spec.modifies this graph by removing a node and edges
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    @Override
+    public void removeNode(T node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        this.removal.writeLock().lock();
+        try {
+            Map<T, CopyOnWriteArrayList<Edge<T, E>>> children = this.nodes.remove(node);
+            if (children == null) {
+                throw new IllegalArgumentException("Graph does not contain the given node");
+            }
+            for (Map.Entry<T, CopyOnWriteArrayList<Edge<T, E>>> entry : children.entrySet()) {
+                this.totalEdges.add(-entry.getValue().size());
+                Set<T> childParents = this.parents.get(entry.getKey());
+                if (childParents != null) {
+                    childParents.remove(node);
+                }
+            }
+            for (T parent : this.parents.remove(node)) {
+                Map<T, CopyOnWriteArrayList<Edge<T, E>>> siblings = this.nodes.get(parent);
+                List<Edge<T, E>> removed = siblings == null ? null : siblings.remove(node);
+                if (removed != null) {
+                    this.totalEdges.add(-removed.size());
+                }
+            }
+            this.version.incrementAndGet();
+        } finally {
+            this.removal.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes one edge from parent to child with the given label. Safe to call from
+     * several threads at once.
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @spec.requires parent, child, and label != null, parent and child exist in the graph
+     * @spec.effects removes one edge from parent to child labeled with label, if there is one
+     * @spec.modifies this graph by removing an edge
+     * @return true if an edge was removed, false if there was no such edge
+     * @throws IllegalArgumentException if any argument is null or the graph does not
+     * contain either parent or child
+     */
+    @Override
+    public boolean removeEdge(T parent, T child, E label) {
+        if (label == null) {
+            throw new IllegalArgumentException("Node and label cannot be null");
+        }
+        this.removal.readLock().lock();
+        try {
+            edgesBetween(parent, child);
+            boolean[] removed = new boolean[1];
+            Map<T, CopyOnWriteArrayList<Edge<T, E>>> children = this.nodes.get(parent);
+            update(children, () -> children.computeIfPresent(child, (c, edges) -> {
+                for (Edge<T, E> edge : edges) {
+                    if (edge.getLabel().equals(label)) {
+                        removed[0] = edges.remove(edge);
+                        break;
+                    }
+                }
+                if (edges.isEmpty()) {
+                    this.parents.get(child).remove(parent);
+                    return null;
+                }
+                return edges;
+            }));
+            if (removed[0]) {
+                this.totalEdges.decrement();
+                this.version.incrementAndGet();
+            }
+            return removed[0];
+        } finally {
+            this.removal.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<T> listNodes() {
+        return new HashSet<>(this.nodes.keySet());
+    }
+
+    @Override
+    public Set<T> listChildren(T parent) {
+        return new HashSet<>(childrenOf(parent).keySet());
+    }
+
+    @Override
+    public Set<T> listParents(T child) {
+        childrenOf(child);
+        Set<T> childParents = this.parents.get(child);
+        return childParents == null ? new HashSet<>() : new HashSet<>(childParents);
+    }
+
+    @Override
+    public Set<Edge<T, E>> listEdges(T node) {
+        return new HashSet<>(new ListEdgeView(childrenOf(node)));
+    }
+
+    @Override
+    public Set<T> nodesView() {
+        return Collections.unmodifiableSet(this.nodes.keySet());
+    }
+
+    @Override
+    public Set<T> childrenView(T parent) {
+        return Collections.unmodifiableSet(childrenOf(parent).keySet());
+    }
+
+    @Override
+    public Set<T> parentsView(T child) {
+        childrenOf(child);
+        Set<T> childParents = this.parents.get(child);
+        return childParents == null ? Collections.emptySet() : Collections.unmodifiableSet(childParents);
+    }
+
+    @Override
+    public Set<Edge<T, E>> edgesView(T node) {
+        return Collections.unmodifiableSet(new ListEdgeView(childrenOf(node)));
+    }
+
+    @Override
+    public void forEachEdge(T node, Consumer<? super Edge<T, E>> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Node and action cannot be null");
+        }
+        for (List<Edge<T, E>> edges : childrenOf(node).values()) {
+            for (Edge<T, E> edge : edges) {
+                action.accept(edge);
+            }
+        }
+    }
+
+    @Override
+    public int totalNumEdges(T parent, T child) {
+        List<Edge<T, E>> edges = edgesBetween(parent, child);
+        return edges.size();
+    }
+
+    @Override
+    public Set<E> getLabel(T parent, T child) {
+        Set<E> labels = new HashSet<>();
+        for (Edge<T, E> edge : edgesBetween(parent, child)) {
+            labels.add(edge.getLabel());
+        }
+        return labels;
+    }
+
+    @Override
+    public int totalNodes() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Returns the total number of edges in the graph. The count is exact once no
+     * thread is adding edges.
+     * @return the number of edges in the graph
+     */
+    @Override
+    public int totalEdges() {
+        return this.totalEdges.intValue();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.nodes.isEmpty();
+    }
+
+    /**
+     * Clears the graph of all nodes and edges. Waits for the changes other threads are
+     * making, like removeNode.
+     * @spec.modifies this
+     */
+    @Override
+    public void clear() {
+        this.removal.writeLock().lock();
+        try {
+            this.nodes.clear();
+            this.parents.clear();
+            this.totalEdges.reset();
+            this.version.incrementAndGet();
+        } finally {
+            this.removal.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsNode(T node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        return this.nodes.containsKey(node);
+    }
+
+    /**
+     * Returns the number of changes made to this graph. The version is made larger once
+     * each change is complete, so a result kept with the version it was computed at is
+     * known to be out of date as soon as any change made while it was computed is done.
+     * @return the version of this graph
+     */
+    @Override
+    public long version() {
+        return this.version.get();
+    }
+
+    /**
+     * Returns true for any two nodes of the graph. A ConcurrentGraph keeps no index of
+     * its components, since edges may be added and removed by other threads while one is
+     * read, so it can never be sure that there is no path.
+     * @param from the node a path would start at
+     * @param to the node a path would end at
+     * @return true
+     * @throws IllegalArgumentException if from or to is null or not in the graph
+     */
+    @Override
+    public boolean mayReach(T from, T to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.nodes.containsKey(from)) || !(this.nodes.containsKey(to))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        return true;
+    }
+
+    /**
+     * Returns an immutable point-in-time version of this graph. Unlike Graph#snapshot(),
+     * this copies every node and edge into a new graph, since the concurrent maps cannot
+     * be shared with copy-on-write. Edges added while the copy is made may or may not be
+     * included.
+     * @return a read-only graph with the current nodes and edges of this graph
+     */
+    @Override
+    public Graph<T, E> snapshot() {
+        Graph<T, E> copy = nodeOrder() == null ? new Graph<>() : new Graph<>(nodeOrder(), labelOrder());
+        Set<T> copied = new HashSet<>(this.nodes.keySet());
+        for (T node : copied) {
+            copy.addNode(node);
+        }
+        for (T node : copied) {
+            Map<T, CopyOnWriteArrayList<Edge<T, E>>> children = this.nodes.get(node);
+            if (children != null) {
+                for (List<Edge<T, E>> edges : children.values()) {
+                    for (Edge<T, E> edge : edges) {
+                        if (copied.contains(edge.getChild())) {
+                            copy.addEdge(node, edge.getChild(), edge.getLabel());
+                        }
+                    }
+                }
+            }
+        }
+        return copy.snapshot();
+    }
+
+    @Override
+    public Comparator<? super T> nodeOrder() {
+        return this.nodeOrder;
+    }
+
+    @Override
+    public Comparator<? super E> labelOrder() {
+        return this.labelOrder;
+    }
+
+    /**
+     * Checks the whole rep invariant of this graph. Only meaningful while no thread
+     * is changing the graph.
+     * @throws IllegalStateException if the graph is broken
+     */
+    @Override
+    public void validate() {
+        long edgeCount = 0;
+        for (Map.Entry<T, ConcurrentMap<T, CopyOnWriteArrayList<Edge<T, E>>>> node : this.nodes.entrySet()) {
+            for (Map.Entry<T, CopyOnWriteArrayList<Edge<T, E>>> children : node.getValue().entrySet()) {
+                if (!(this.nodes.containsKey(children.getKey()))) {
+                    throw new IllegalStateException("graph must have child node");
+                } else if (!(this.parents.get(children.getKey()).contains(node.getKey()))) {
+                    throw new IllegalStateException("parents must list every parent");
+                }
+                edgeCount += children.getValue().size();
+                if (labelOrder() != null) {
+                    List<Edge<T, E>> edges = children.getValue();
+                    for (int i = 1; i < edges.size(); i++) {
+                        if (labelOrder().compare(edges.get(i - 1).getLabel(), edges.get(i).getLabel()) > 0) {
+                            throw new IllegalStateException("edge labels must be in label order");
+                        }
+                    }
+                }
+            }
+        }
+        if (edgeCount != this.totalEdges.sum()) {
+            throw new IllegalStateException("edge count must match the edges in the graph");
+        } else if (!(this.parents.keySet().equals(this.nodes.keySet()))) {
+            throw new IllegalStateException("parents must match nodes");
+        }
+    }
+
+    /**
+     * Runs a change to the edge lists of one node. On a ConcurrentHashMap compute() is
+     * atomic by itself; the child maps of a sorted graph are ConcurrentSkipListMaps,
+     * whose compute() is not, so the change is made holding the lock of the child map.
+     * @param children the child map that is changed
+     * @param change the change, made with compute() or computeIfPresent() on children
+     */
+    private void update(Map<T, CopyOnWriteArrayList<Edge<T, E>>> children, Runnable change) {
+        if (nodeOrder() == null) {
+            change.run();
+        } else {
+            synchronized (children) {
+                change.run();
+            }
+        }
+    }
+
+    /**
+     * Returns the children map of node, checking that node is in the graph.
+     */
+    private Map<T, CopyOnWriteArrayList<Edge<T, E>>> childrenOf(T node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        Map<T, CopyOnWriteArrayList<Edge<T, E>>> children = this.nodes.get(node);
+        if (children == null) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        return children;
+    }
+
+    /**
+     * Returns the edges from parent to child, checking that both are in the graph.
+     */
+    private List<Edge<T, E>> edgesBetween(T parent, T child) {
+        if (parent == null || child == null) {
+            throw new IllegalArgumentException("A given node cannot be null");
+        } else if (!(this.nodes.containsKey(child))) {
+            throw new IllegalArgumentException("Child node was not found in the graph");
+        }
+        Map<T, CopyOnWriteArrayList<Edge<T, E>>> children = this.nodes.get(parent);
+        if (children == null) {
+            throw new IllegalArgumentException("Parent node was not found in the graph");
+        }
+        List<Edge<T, E>> edges = children.get(child);
+        return edges == null ? Collections.emptyList() : edges;
+    }
+
+    /**
+     * A live set view of the edges starting at one node, read straight from the
+     * edge lists of that node. It does not support changes.
+     */
+    private final class ListEdgeView extends AbstractSet<Edge<T, E>> {
+        private final Map<T, ? extends List<Edge<T, E>>> children;
+
+        /**
+         * @param children the edges of one node, grouped by child node
+         * @spec.requires children != null
+         */
+        ListEdgeView(Map<T, ? extends List<Edge<T, E>>> children) {
+            this.children = children;
+        }
+
+        @Override
+        public Iterator<Edge<T, E>> iterator() {
+            return new Iterator<Edge<T, E>>() {
+                private final Iterator<? extends List<Edge<T, E>>> lists = children.values().iterator();
+                private Iterator<Edge<T, E>> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!(current.hasNext()) && lists.hasNext()) {
+                        current = lists.next().iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Edge<T, E> next() {
+                    if (!(hasNext())) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (List<Edge<T, E>> edges : this.children.values()) {
+                size += edges.size();
+            }
+            return size;
+        }
+    }
+
+    private void checkRep() {
+        assert (this.nodes != null) : "graph can't be null";
+        assert (this.parents != null) : "parents can't be null";
+        assert (this.totalEdges != null) : "edge count can't be null";
+        assert ((this.nodeOrder == null) == (this.labelOrder == null)) : "orders must both be set or both be null";
+    }
+}
@@ -1,9 +1,17 @@
 package graph;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Graph is a mutable list of nodes. It consists of vertices and
@@ -13,22 +21,75 @@ import java.util.Set;
  * a parent and child node will have the same label, they will be different.
  * The nodes cannot be null and edges for a given node cannot be null. Edges
  * can start and end at the same node.
+ * A Graph is meant to be used by one thread at a time; ConcurrentGraph is the
+ * AbstractGraph that can be shared between threads.
  */
-public class Graph<T, E> {
-    private static final boolean DEBUG = false;
-    private Map<T, HashSet<Edge>> graph;
+public class Graph<T, E> extends AbstractGraph<T, E> {
+    // How much invariant checking is done on each call. Chosen at startup with
+    // -Dgraph.checkRep=none|incremental|full (default none), see checkRep().
+    private static final CheckLevel CHECK_LEVEL = CheckLevel.of(System.getProperty("graph.checkRep"));
+    private Map<T, Map<T, int[]>> graph;
+    private Map<T, Set<T>> parents;
     private int totalEdges = 0;
+    // Label table: every distinct label is stored once and edges refer to it by id
+    private Object[] labels;
+    private int labelCount = 0;
+    private Map<E, Integer> labelIds;
+    // Edge order of a sorted graph, both null for a graph whose edges are not kept sorted
+    private final Comparator<? super T> nodeOrder;
+    private final Comparator<? super E> labelOrder;
+    // Weakly connected components for mayReach, built on first use and dropped when a
+    // node or edge is removed; null until then. Not part of the abstract value.
+    private volatile ComponentIndex<T> components = null;
+    // Number of changes made to this graph, see version(). Not part of the abstract value.
+    private long version = 0;
+    // Copy-on-write state for snapshots, see snapshot()
+    private final boolean readOnly;
+    private boolean shared = false;
+    private Set<T> owned = null;
 
     // Rep Invariant:
-    // graph != null
-    // every node and every edge != null
+    // graph != null, parents != null and labels != null
+    // every node != null
     // no duplicate nodes
     // graph must contain node if node is included in any edge of the graph
+    // no edge list is empty, and no edge list holds the same label id twice
+    // totalEdges == total length of every edge list in the graph
+    // parents.keySet() equals graph.keySet(), and parents.get(b) contains a
+    // exactly when graph.get(a) has an edge list for b
+    // 0 <= labelCount <= labels.length, labels[i] != null for i < labelCount
+    // every label id in an edge list is < labelCount
+    // labelIds == null if this graph is read-only, otherwise labelIds.get(labels[i]) == i
+    // for every i < labelCount and labelIds.size() == labelCount
+    // nodeOrder == null exactly when labelOrder == null
+    // if nodeOrder != null, every child map is a TreeMap ordered by nodeOrder, and the
+    // labels of every edge list are in labelOrder
     //
     // Abstract Function:
     // Graph g represents a map of nodes. each node has a set of edges that
     // connect them to other nodes within the graph. the nodes are mapped as keys
-    // in a hashmap and their edges are stored as a hashset of edge objects in values.
+    // in a hashmap and their edges are grouped by child node, so graph.get(a).get(b)
+    // lists every edge from a to b by the id of its label: label id i stands for the
+    // edge from a to b labeled labels[i]. Grouping by child keeps the edge count
+    // and the labels between two nodes one lookup away, and storing each distinct
+    // label once keeps graphs where many edges share a label (such as every pair of
+    // characters in a comic book) small. parents is the reverse index: parents.get(b)
+    // is the set of nodes with at least one edge to b. Edge objects are not stored;
+    // they are made when edges are listed.
+    //
+    // Edge lists are never changed in place, they are replaced, so they can be shared.
+    // labels is only ever appended to (past labelCount) or replaced, so a snapshot can
+    // share it too. Labels stay in the table after their last edge is removed, until
+    // clear(). Snapshots share structure with the graph they were taken from. While
+    // shared is true, graph and parents themselves are also used by a snapshot and must
+    // be copied before they are changed. While owned != null, only the child maps and
+    // parents sets of the nodes in owned belong to this graph alone; those of every
+    // other node may be used by a snapshot and must be copied before they are changed.
+    // A read-only graph is a snapshot and is never changed.
+    //
+    // A sorted graph keeps the edges of each node in the order a search visits them:
+    // children in nodeOrder and, between the same two nodes, labels in labelOrder. Both
+    // are kept in order as edges are added, so listing them in order costs nothing.
 
     /**
      * Constructs a new graph
@@ -36,9 +97,261 @@ public class Graph<T, E> {
      */
     public Graph(){
         this.graph = new HashMap<>();
+        this.parents = new HashMap<>();
+        this.labels = new Object[16];
+        this.labelIds = new HashMap<>();
+        this.nodeOrder = null;
+        this.labelOrder = null;
+        this.readOnly = false;
+        checkRep();
+    }
+
+    /**
+     * Constructs a new sorted graph, which keeps the edges of every node sorted by
+     * child in nodeOrder, then by label in labelOrder. edgesView, listEdges' iteration,
+     * forEachEdge and freeze list the edges of a node in that order, so a search that
+     * visits them in order does not have to sort them. Adding an edge takes O(log d + k)
+     * time for a node with d children and k edges to the child. Both orders must be
+     * consistent with equals.
+     * @param nodeOrder the order of the children of a node
+     * @param labelOrder the order of the labels between the same two nodes
+     * @spec.effects constructs a new empty sorted graph
+     * @throws IllegalArgumentException if nodeOrder or labelOrder is null
+     */
+    public Graph(Comparator<? super T> nodeOrder, Comparator<? super E> labelOrder) {
+        this(new HashMap<>(), new HashMap<>(), 0, new Object[16], 0, new HashMap<>(),
+                checkOrder(nodeOrder), checkOrder(labelOrder));
+    }
+
+    /**
+     * Constructs a new empty graph whose node table is sized for expectedNodes nodes,
+     * for use by GraphBuilder
+     * @param expectedNodes the number of nodes the graph is expected to hold
+     * @spec.requires expectedNodes >= 0
+     */
+    Graph(int expectedNodes) {
+        // HashMap resizes past 3/4 full, so leave room for every expected node
+        int capacity = Math.max(16, (int) (expectedNodes / 0.75f) + 1);
+        this.graph = new HashMap<>(capacity);
+        this.parents = new HashMap<>(capacity);
+        this.labels = new Object[16];
+        this.labelIds = new HashMap<>();
+        this.nodeOrder = null;
+        this.labelOrder = null;
+        this.readOnly = false;
+        checkRep();
+    }
+
+    /**
+     * Constructs a graph from a complete, already built rep, for ParallelGraphBuilder.
+     * The maps and arrays are used directly and must not be used by the caller afterwards.
+     * @param graph the edges of each node, as label ids grouped by child node
+     * @param parents the reverse index of graph
+     * @param totalEdges the number of edges in graph
+     * @param labels the label table
+     * @param labelCount the number of labels in the table
+     * @param labelIds the id of each label in the table
+     * @spec.requires the arguments satisfy the rep invariant of this class
+     */
+    Graph(Map<T, Map<T, int[]>> graph, Map<T, Set<T>> parents, int totalEdges,
+          Object[] labels, int labelCount, Map<E, Integer> labelIds) {
+        this(graph, parents, totalEdges, labels, labelCount, labelIds, null, null);
+    }
+
+    /**
+     * Constructs a graph from a complete, already built rep, sorted by nodeOrder and
+     * labelOrder if they are given. The maps and arrays are used directly.
+     * @spec.requires the arguments satisfy the rep invariant of this class
+     */
+    private Graph(Map<T, Map<T, int[]>> graph, Map<T, Set<T>> parents, int totalEdges,
+                  Object[] labels, int labelCount, Map<E, Integer> labelIds,
+                  Comparator<? super T> nodeOrder, Comparator<? super E> labelOrder) {
+        this.graph = graph;
+        this.parents = parents;
+        this.totalEdges = totalEdges;
+        this.labels = labels;
+        this.labelCount = labelCount;
+        this.labelIds = labelIds;
+        this.nodeOrder = nodeOrder;
+        this.labelOrder = labelOrder;
+        this.readOnly = false;
         checkRep();
     }
 
+    /**
+     * Constructs a read-only snapshot that shares its maps with another graph
+     * @param graph the node map to share
+     * @param parents the reverse index to share
+     * @param totalEdges the number of edges in graph
+     * @param labels the label table to share
+     * @param labelCount the number of labels in the table
+     * @param nodeOrder the order of the children of a node, null if graph is not sorted
+     * @param labelOrder the order of the labels between two nodes, null if graph is not sorted
+     * @param version the version of the graph at the time of the snapshot
+     */
+    private Graph(Map<T, Map<T, int[]>> graph, Map<T, Set<T>> parents, int totalEdges,
+                  Object[] labels, int labelCount, Comparator<? super T> nodeOrder,
+                  Comparator<? super E> labelOrder, long version) {
+        this.graph = graph;
+        this.parents = parents;
+        this.totalEdges = totalEdges;
+        this.labels = labels;
+        this.labelCount = labelCount;
+        this.nodeOrder = nodeOrder;
+        this.labelOrder = labelOrder;
+        this.version = version;
+        this.readOnly = true;
+        checkRep();
+    }
+
+    /**
+     * Returns an immutable point-in-time version of this graph. Later changes to this
+     * graph are not seen by the snapshot, so readers can keep searching it while a
+     * writer changes this graph. Taking a snapshot is O(1): the snapshot shares all of
+     * its structure with this graph. Afterwards this graph copies what it changes
+     * instead of changing it in place: the node table once, on the first change after
+     * the snapshot, and the child map of a node the first time that node is touched. The
+     * work done for a batch of changes therefore depends on the nodes it touches, not on
+     * the number of edges in the graph.
+     * @return a read-only graph with the current nodes and edges of this graph, whose
+     * mutating methods throw UnsupportedOperationException
+     */
+    @Override
+    public Graph<T, E> snapshot() {
+        checkRep();
+        if (this.readOnly) {
+            return this;
+        }
+        this.shared = true;
+        this.owned = new HashSet<>();
+        return new Graph<>(this.graph, this.parents, this.totalEdges, this.labels, this.labelCount,
+                this.nodeOrder, this.labelOrder, this.version);
+    }
+
+    /**
+     * Makes the node table safe to change, copying it if a snapshot still uses it.
+     * @throws UnsupportedOperationException if this graph is a snapshot
+     */
+    private void beginWrite() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("Graph snapshots cannot be modified");
+        }
+        if (this.shared) {
+            this.graph = new HashMap<>(this.graph);
+            this.parents = new HashMap<>(this.parents);
+            this.shared = false;
+        }
+    }
+
+    /**
+     * Makes the child map and parents of node safe to change, copying them if a snapshot
+     * may still use them. The edge lists themselves are never changed in place.
+     * @spec.requires beginWrite() was called and node is in the graph
+     */
+    private void own(T node) {
+        if (this.owned != null && this.owned.add(node)) {
+            this.graph.put(node, copyChildren(this.graph.get(node)));
+            this.parents.put(node, new HashSet<>(this.parents.get(node)));
+        }
+    }
+
+    /**
+     * Returns a new, empty child map: a TreeMap in nodeOrder if this graph is sorted
+     */
+    private Map<T, int[]> newChildren() {
+        if (this.nodeOrder == null) {
+            return new HashMap<>();
+        }
+        return new TreeMap<>(this.nodeOrder);
+    }
+
+    /**
+     * Returns a copy of a child map of this graph, of the same kind
+     */
+    private Map<T, int[]> copyChildren(Map<T, int[]> children) {
+        Map<T, int[]> copy = newChildren();
+        // a TreeMap copies another sorted map with the same order in linear time
+        copy.putAll(children);
+        return copy;
+    }
+
+    /**
+     * Returns the edge list with labelId added: at the end, or in labelOrder if this
+     * graph is sorted
+     * @param edges the edge list to add to, null if there are no edges yet
+     */
+    private int[] addLabel(int[] edges, int labelId) {
+        if (this.labelOrder == null || edges == null) {
+            return withLabel(edges, labelId);
+        }
+        E label = label(labelId);
+        // after any equal labels, so edges with the same label stay in the order added
+        int index = edges.length;
+        while (index > 0 && this.labelOrder.compare(label(edges[index - 1]), label) > 0) {
+            index--;
+        }
+        int[] added = new int[edges.length + 1];
+        System.arraycopy(edges, 0, added, 0, index);
+        added[index] = labelId;
+        System.arraycopy(edges, index, added, index + 1, edges.length - index);
+        return added;
+    }
+
+    /**
+     * Returns the id of label in the label table, adding it to the table if needed.
+     * @spec.requires label != null and beginWrite() was called
+     */
+    private int labelId(E label) {
+        Integer id = this.labelIds.get(label);
+        if (id == null) {
+            if (this.labelCount == this.labels.length) {
+                // a new array, since a snapshot may share the old one
+                this.labels = Arrays.copyOf(this.labels, 2 * this.labelCount);
+            }
+            id = this.labelCount;
+            this.labels[this.labelCount++] = label;
+            this.labelIds.put(label, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the label with the given id in the label table
+     */
+    @SuppressWarnings("unchecked")
+    private E label(int id) {
+        return (E) this.labels[id];
+    }
+
+    /**
+     * Returns true if the edge list holds labelId
+     * @param edges the edge list to search, null if there are no edges
+     * @param labelId the label id to look for, null if the label is not in the table
+     */
+    static boolean hasLabel(int[] edges, Integer labelId) {
+        if (edges != null && labelId != null) {
+            for (int id : edges) {
+                if (id == labelId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the edge list with labelId added to the end of edges
+     * @param edges the edge list to add to, null if there are no edges yet
+     */
+    static int[] withLabel(int[] edges, int labelId) {
+        if (edges == null) {
+            return new int[] {labelId};
+        }
+        int[] added = Arrays.copyOf(edges, edges.length + 1);
+        added[edges.length] = labelId;
+        return added;
+    }
+
     /**
      * Adds a node to the graph
      * @param nodeName is the node being added
@@ -47,17 +360,28 @@ public class Graph<T, E> {
      * @spec.modifies this graph by adding a node
      * @throws IllegalArgumentException if nodeName already exists
      */
+    @Override
     public void addNode(T nodeName) {
         checkRep();
+        beginWrite();
         if (nodeName != null) {
             if(!(this.graph.containsKey(nodeName))) {
-                this.graph.put(nodeName, new HashSet<>());
+                this.graph.put(nodeName, newChildren());
+                this.parents.put(nodeName, new HashSet<>());
+                if (this.owned != null) {
+                    this.owned.add(nodeName);
+                }
+                if (this.components != null) {
+                    this.components.add(nodeName);
+                }
+                this.version++;
             } else {
                 throw new IllegalArgumentException("Node already exists");
             }
         } else {
             throw new IllegalArgumentException("Node cannot be null");
         }
+        checkNode(nodeName);
         checkRep();
     }
 
@@ -73,28 +397,220 @@ public class Graph<T, E> {
      * @spec.effects adds a new edge with parent and child node labeled with label
      * @spec.modifies this graph by adding an edge with nodes
      * @throws IllegalArgumentException if graph does not contain either parent or child
-     * or if label already exists.
+     * or if there already is an edge from parent to child with label.
      */
+    @Override
     public void addEdge(T parent, T child, E label) {
         checkRep();
+        beginWrite();
         if (parent == null || child == null || label == null) {
             throw new IllegalArgumentException("Node and label cannot be null");
         } else if (!(this.graph.containsKey(parent))) {
             throw new IllegalArgumentException("Parent node is not found in the graph");
         } else if (!(this.graph.containsKey(child))) {
             throw new IllegalArgumentException("Child node is not found in the graph");
+        } else if (hasLabel(this.graph.get(parent).get(child), this.labelIds.get(label))) {
+            throw new IllegalArgumentException("Edge already exists");
         } else {
-            Edge edge = new Edge(parent, child, label);
-            this.graph.get(parent).add(edge);
+            own(parent);
+            int[] edges = this.graph.get(parent).get(child);
+            if (edges == null) {
+                own(child);
+                this.parents.get(child).add(parent);
+            }
+            this.graph.get(parent).put(child, addLabel(edges, labelId(label)));
             this.totalEdges++;
+            if (this.components != null) {
+                this.components.union(parent, child);
+            }
+            this.version++;
+            checkEdges(parent, child);
             checkRep();
         }
     }
 
+    /**
+     * Returns a sorted graph with the nodes and edges of this graph, sorting every child
+     * map and edge list once. Only for GraphBuilder, which loads an unsorted graph and
+     * sorts it when it is built, since that is cheaper than keeping every edge list
+     * sorted while it grows. This graph must not be used afterwards.
+     * @param nodeOrder the order of the children of a node
+     * @param labelOrder the order of the labels between the same two nodes
+     * @return the sorted graph
+     * @spec.requires nodeOrder != null, labelOrder != null, and this graph is not sorted
+     * and has no snapshots
+     */
+    Graph<T, E> sortedBy(Comparator<? super T> nodeOrder, Comparator<? super E> labelOrder) {
+        for (Map.Entry<T, Map<T, int[]>> node : this.graph.entrySet()) {
+            Map<T, int[]> children = new TreeMap<>(nodeOrder);
+            for (Map.Entry<T, int[]> child : node.getValue().entrySet()) {
+                int[] edges = child.getValue();
+                if (edges.length > 1) {
+                    // a stable sort, so edges with the same label stay in the order added
+                    Integer[] boxed = new Integer[edges.length];
+                    for (int i = 0; i < edges.length; i++) {
+                        boxed[i] = edges[i];
+                    }
+                    Arrays.sort(boxed, (id1, id2) -> labelOrder.compare(label(id1), label(id2)));
+                    for (int i = 0; i < edges.length; i++) {
+                        edges[i] = boxed[i];
+                    }
+                }
+                children.put(child.getKey(), edges);
+            }
+            // replaced in place, so each unsorted child map can be collected right away
+            node.setValue(children);
+        }
+        return new Graph<>(this.graph, this.parents, this.totalEdges, this.labels, this.labelCount,
+                this.labelIds, nodeOrder, labelOrder);
+    }
+
+    /**
+     * Returns true if node is in the graph, like containsNode but skipping argument
+     * checks and checkRep. Only for GraphBuilder, which validates the finished graph once.
+     * @param node the node to look up
+     * @spec.requires node != null
+     */
+    boolean hasNode(T node) {
+        return this.graph.containsKey(node);
+    }
+
+    /**
+     * Adds a node if it is not in the graph yet, skipping argument checks and checkRep.
+     * Only for GraphBuilder, which validates the finished graph once.
+     * @param node the node to add
+     * @spec.requires node != null and this graph is not a snapshot
+     */
+    void putNode(T node) {
+        if (!(this.graph.containsKey(node))) {
+            this.graph.put(node, newChildren());
+            this.parents.put(node, new HashSet<>());
+        }
+    }
+
+    /**
+     * Adds an edge, adding its nodes first if they are not in the graph yet, skipping
+     * argument checks and checkRep. Does nothing if the edge is already in the graph.
+     * Only for GraphBuilder, which validates the finished graph once.
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @spec.requires parent, child, and label != null and this graph is not a snapshot
+     */
+    void putEdge(T parent, T child, E label) {
+        putNode(parent);
+        putNode(child);
+        Map<T, int[]> children = this.graph.get(parent);
+        int[] edges = children.get(child);
+        if (edges == null) {
+            this.parents.get(child).add(parent);
+        } else if (hasLabel(edges, this.labelIds.get(label))) {
+            return;
+        }
+        children.put(child, addLabel(edges, labelId(label)));
+        this.totalEdges++;
+    }
+
+    /**
+     * Removes a node from the graph, along with every edge that starts or ends at it.
+     * Runs in time proportional to the number of nodes the removed node is connected to.
+     * @param node is the node being removed
+     * @spec.requires node != null and node exists in the graph
+     * @spec.effects removes node and all of its incoming and outgoing edges
+     * @spec.modifies this graph by removing a node and edges
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    @Override
+    public void removeNode(T node) {
+        checkRep();
+        beginWrite();
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.graph.containsKey(node))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        own(node);
+        // outgoing edges (a self edge is removed here, and node drops out of its own parents)
+        for (Map.Entry<T, int[]> entry : this.graph.get(node).entrySet()) {
+            this.totalEdges -= entry.getValue().length;
+            own(entry.getKey());
+            this.parents.get(entry.getKey()).remove(node);
+        }
+        // incoming edges, found through the reverse index instead of a scan of every node
+        for (T parent : this.parents.get(node)) {
+            own(parent);
+            this.totalEdges -= this.graph.get(parent).remove(node).length;
+        }
+        this.graph.remove(node);
+        this.parents.remove(node);
+        // a component may have split, which the index cannot undo
+        this.components = null;
+        this.version++;
+        checkRemoved(node);
+        checkRep();
+    }
+
+    /**
+     * Removes one edge from parent to child with the given label
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @spec.requires parent, child, and label != null, parent and child exist in the graph
+     * @spec.effects removes one edge from parent to child labeled with label, if there is one
+     * @spec.modifies this graph by removing an edge
+     * @return true if an edge was removed, false if there was no such edge
+     * @throws IllegalArgumentException if any argument is null or the graph does not
+     * contain either parent or child
+     */
+    @Override
+    public boolean removeEdge(T parent, T child, E label) {
+        checkRep();
+        beginWrite();
+        if (parent == null || child == null || label == null) {
+            throw new IllegalArgumentException("Node and label cannot be null");
+        } else if (!(this.graph.containsKey(parent))) {
+            throw new IllegalArgumentException("Parent node is not found in the graph");
+        } else if (!(this.graph.containsKey(child))) {
+            throw new IllegalArgumentException("Child node is not found in the graph");
+        }
+        int[] edges = this.graph.get(parent).get(child);
+        Integer labelId = this.labelIds.get(label);
+        if (edges == null || labelId == null) {
+            return false;
+        }
+        for (int i = 0; i < edges.length; i++) {
+            if (edges[i] == labelId) {
+                own(parent);
+                this.totalEdges--;
+                if (edges.length == 1) {
+                    this.graph.get(parent).remove(child);
+                    own(child);
+                    this.parents.get(child).remove(parent);
+                    if (!(this.graph.get(child).containsKey(parent))) {
+                        // the nodes are no longer adjacent, so a component may have
+                        // split, which the index cannot undo
+                        this.components = null;
+                    }
+                } else {
+                    int[] removed = new int[edges.length - 1];
+                    System.arraycopy(edges, 0, removed, 0, i);
+                    System.arraycopy(edges, i + 1, removed, i, edges.length - i - 1);
+                    this.graph.get(parent).put(child, removed);
+                }
+                this.version++;
+                checkEdges(parent, child);
+                checkRep();
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns all the nodes in the graph
      * @return set of Nodes in graph, empty if no nodes
      */
+    @Override
     public Set<T> listNodes() {
         checkRep();
         return new HashSet<>(this.graph.keySet());
@@ -108,20 +624,37 @@ public class Graph<T, E> {
      * @return set of all children to the parent node, empty if no children
      * @throws IllegalArgumentException if graph does not contain given parent node
      */
+    @Override
     public Set<T> listChildren(T parent) {
         checkRep();
         if(!(this.graph.containsKey(parent))) {
             throw new IllegalArgumentException("The given node is not found");
         } else {
-            Set<T> child = new HashSet<>();
-            for (Edge edge : this.graph.get(parent)) {
-                child.add(edge.getChild());
-            }
             checkRep();
-            return child;
+            return new HashSet<>(this.graph.get(parent).keySet());
         }
     }
 
+    /**
+     * Returns all parents of the given node within the graph, that is every
+     * node with an edge to it
+     *
+     * @param child is the node whose parents are listed
+     * @spec.requires child != null
+     * @return set of all parents of the child node, empty if no parents
+     * @throws IllegalArgumentException if child is null or the graph does not contain it
+     */
+    @Override
+    public Set<T> listParents(T child) {
+        checkRep();
+        if (child == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.graph.containsKey(child))) {
+            throw new IllegalArgumentException("The given node is not found");
+        }
+        return new HashSet<>(this.parents.get(child));
+    }
+
     /**
      * Returns all edges of the given node within the graph
      * @spec.requires node != null
@@ -129,7 +662,8 @@ public class Graph<T, E> {
      * @return set if all edges to the given node, empty if no edges
      * @throws IllegalArgumentException if graph does not contain given node
      */
-    public Set<Edge> listEdges(T node) {
+    @Override
+    public Set<Edge<T, E>> listEdges(T node) {
         checkRep();
         if (node == null) {
             throw new IllegalArgumentException("Node cannot be null");
@@ -137,7 +671,98 @@ public class Graph<T, E> {
             throw new IllegalArgumentException("Graph does not contain the given node");
         } else {
             checkRep();
-            return new HashSet<>(this.graph.get(node));
+            return new HashSet<>(new EdgeView(node, this.graph.get(node)));
+        }
+    }
+
+    /**
+     * Returns a read-only view of all the nodes in the graph. Unlike listNodes,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @return unmodifiable live set of the nodes in the graph
+     */
+    @Override
+    public Set<T> nodesView() {
+        checkRep();
+        return Collections.unmodifiableSet(this.graph.keySet());
+    }
+
+    /**
+     * Returns a read-only view of the children of the given node. Unlike listChildren,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @param parent the node whose children are viewed
+     * @spec.requires parent != null
+     * @return unmodifiable live set of the children of parent
+     * @throws IllegalArgumentException if parent is null or not in the graph
+     */
+    @Override
+    public Set<T> childrenView(T parent) {
+        checkRep();
+        if (parent == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.graph.containsKey(parent))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        return Collections.unmodifiableSet(this.graph.get(parent).keySet());
+    }
+
+    /**
+     * Returns a read-only view of the parents of the given node. Unlike listParents,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @param child the node whose parents are viewed
+     * @spec.requires child != null
+     * @return unmodifiable live set of the parents of child
+     * @throws IllegalArgumentException if child is null or not in the graph
+     */
+    @Override
+    public Set<T> parentsView(T child) {
+        checkRep();
+        if (child == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.graph.containsKey(child))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        return Collections.unmodifiableSet(this.parents.get(child));
+    }
+
+    /**
+     * Returns a read-only view of the edges of the given node. Unlike listEdges,
+     * nothing is copied, and the view reflects later changes to the graph.
+     * @param node to get all the Edges from
+     * @spec.requires node != null
+     * @return unmodifiable live set of the edges starting at node
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    @Override
+    public Set<Edge<T, E>> edgesView(T node) {
+        checkRep();
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.graph.containsKey(node))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        return Collections.unmodifiableSet(new EdgeView(node, this.graph.get(node)));
+    }
+
+    /**
+     * Passes every edge of the given node to action, without copying the edges.
+     * The graph must not be changed by action.
+     * @param node to get all the Edges from
+     * @param action called once for each edge starting at node
+     * @spec.requires node != null and action != null
+     * @throws IllegalArgumentException if node or action is null or node is not in the graph
+     */
+    @Override
+    public void forEachEdge(T node, Consumer<? super Edge<T, E>> action) {
+        checkRep();
+        if (node == null || action == null) {
+            throw new IllegalArgumentException("Node and action cannot be null");
+        } else if (!(this.graph.containsKey(node))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        for (Map.Entry<T, int[]> entry : this.graph.get(node).entrySet()) {
+            for (int labelId : entry.getValue()) {
+                action.accept(new Edge<>(node, entry.getKey(), label(labelId)));
+            }
         }
     }
 
@@ -148,6 +773,7 @@ public class Graph<T, E> {
      * @spec.requires parent, child != null
      * @return the num of edges between parent and child node
      */
+    @Override
     public int totalNumEdges(T parent, T child) {
         checkRep();
         if (parent == null || child == null) {
@@ -157,14 +783,9 @@ public class Graph<T, E> {
         } else if (!(this.graph.containsKey(child))) {
             throw new IllegalArgumentException("Child node was not found in the graph");
         } else {
-            int counter = 0;
-            for (Edge edge : this.graph.get(parent)) {
-                if (edge.getChild().equals(child)) {
-                    counter++;
-                }
-            }
+            int[] edges = this.graph.get(parent).get(child);
             checkRep();
-            return counter;
+            return edges == null ? 0 : edges.length;
         }
     }
 
@@ -172,6 +793,7 @@ public class Graph<T, E> {
      * Returns the total number of nodes in the graph
      * @return the number of nodes in the graph
      */
+    @Override
     public int totalNodes() {
         checkRep();
 
@@ -182,6 +804,7 @@ public class Graph<T, E> {
      * Returns the total number of edges in the graph
      * @return the number of edges in the graph
      */
+    @Override
     public int totalEdges() {
         checkRep();
         return this.totalEdges;
@@ -193,13 +816,23 @@ public class Graph<T, E> {
      * @param child node for child label
      * @return a set of labels representing the edge between the parent and child
      * @spec.requires both the parent and child are in the graph
+     * @throws IllegalArgumentException if parent or child is null or not in the graph
      */
+    @Override
     public Set<E> getLabel(T parent, T child){
         checkRep();
+        if (parent == null || child == null) {
+            throw new IllegalArgumentException("A given node cannot be null");
+        } else if (!(this.graph.containsKey(parent))) {
+            throw new IllegalArgumentException("Parent node was not found in the graph");
+        } else if (!(this.graph.containsKey(child))) {
+            throw new IllegalArgumentException("Child node was not found in the graph");
+        }
         Set<E> labels = new HashSet<>();
-        for (Edge edge : graph.get(parent)) {
-            if (child.equals(edge.getChild())) {
-                labels.add(edge.getLabel());
+        int[] edges = this.graph.get(parent).get(child);
+        if (edges != null) {
+            for (int labelId : edges) {
+                labels.add(label(labelId));
             }
         }
         checkRep();
@@ -207,26 +840,200 @@ public class Graph<T, E> {
     }
 
 
+    /**
+     * Checks the parts of the rep invariant that take O(1) time. With
+     * -Dgraph.checkRep=full (and assertions enabled) the whole graph is validated
+     * instead, which takes time proportional to the size of the graph on every call.
+     */
     private void checkRep() {
         assert (this.graph != null) : "graph can't be null";
+        assert (this.parents != null) : "parents can't be null";
+        assert (this.labels != null && this.labelCount <= this.labels.length) : "label table can't be null";
         assert (!(this.graph.containsKey(null)));
-        if (DEBUG) {
-            for (T node : this.graph.keySet()) assert (node != null) : "nodes cannot be null";
-            for (T node : this.graph.keySet()){
-                HashSet<Edge> edgeSet = this.graph.get(node);
-                assert (this.graph.get(node) != null) : "nodes must not have null edges";
-                for (Edge edge : edgeSet) {
-                    assert (edge != null) : "graph cannot have null edges";
-                    assert (graph.containsKey(edge.getChild())) : "graph must have child node";
+        if (CHECK_LEVEL == CheckLevel.FULL) {
+            assert (findViolation() == null) : findViolation();
+        }
+    }
+
+    /**
+     * Checks the rep invariant for a node that was just added, with
+     * -Dgraph.checkRep=incremental or full.
+     */
+    private void checkNode(T node) {
+        if (CHECK_LEVEL != CheckLevel.NONE) {
+            assert (this.graph.get(node) != null) : "nodes must not have null edges";
+            assert (this.parents.get(node) != null) : "nodes must have a parents set";
+        }
+    }
+
+    /**
+     * Checks the rep invariant for the edges from parent to child after they changed,
+     * with -Dgraph.checkRep=incremental or full. Takes time proportional to the number
+     * of edges from parent to child.
+     */
+    private void checkEdges(T parent, T child) {
+        if (CHECK_LEVEL != CheckLevel.NONE) {
+            checkNode(parent);
+            checkNode(child);
+            int[] edges = this.graph.get(parent).get(child);
+            assert (this.parents.get(child).contains(parent) == (edges != null))
+                    : "parents must list exactly the nodes with an edge to child";
+            if (edges != null) {
+                assert (edges.length > 0) : "edge lists cannot be empty";
+                for (int labelId : edges) {
+                    assert (labelId >= 0 && labelId < this.labelCount) : "edge label must be in the table";
+                }
+                assert (isInLabelOrder(edges)) : "edge labels must be in label order";
+                assert (!(hasRepeats(edges))) : "edges cannot repeat";
+            }
+        }
+    }
+
+    /**
+     * Checks the rep invariant for a node that was just removed, with
+     * -Dgraph.checkRep=incremental or full.
+     */
+    private void checkRemoved(T node) {
+        if (CHECK_LEVEL != CheckLevel.NONE) {
+            assert (!(this.graph.containsKey(node))) : "removed node must be gone";
+            assert (!(this.parents.containsKey(node))) : "removed node must be gone from parents";
+        }
+    }
+
+    /**
+     * Checks the whole rep invariant of this graph, whatever checking was chosen with
+     * -Dgraph.checkRep and whether or not assertions are enabled. Takes time proportional
+     * to the number of nodes and edges in the graph.
+     * @throws IllegalStateException if the graph is broken
+     */
+    @Override
+    public void validate() {
+        String violation = findViolation();
+        if (violation != null) {
+            throw new IllegalStateException(violation);
+        }
+    }
+
+    /**
+     * Returns a description of the first part of the rep invariant that does not hold,
+     * or null if the whole rep invariant holds.
+     */
+    private String findViolation() {
+        int edgeCount = 0;
+        for (T node : this.graph.keySet()){
+            if (node == null) {
+                return "nodes cannot be null";
+            }
+            Map<T, int[]> children = this.graph.get(node);
+            if (children == null) {
+                return "nodes must not have null edges";
+            }
+            for (T child : children.keySet()) {
+                if (!(graph.containsKey(child))) {
+                    return "graph must have child node";
+                } else if (!(parents.get(child).contains(node))) {
+                    return "parents must list every parent";
+                } else if (children.get(child).length == 0) {
+                    return "edge lists cannot be empty";
+                }
+                for (int labelId : children.get(child)) {
+                    if (labelId < 0 || labelId >= this.labelCount) {
+                        return "edge label must be in the table";
+                    }
+                    edgeCount++;
+                }
+                if (!(isInLabelOrder(children.get(child)))) {
+                    return "edge labels must be in label order";
+                } else if (hasRepeats(children.get(child))) {
+                    return "edges cannot repeat";
+                }
+            }
+            if (this.nodeOrder != null && !(children instanceof TreeMap
+                    && ((TreeMap<T, int[]>) children).comparator() == this.nodeOrder)) {
+                return "children must be sorted in node order";
+            }
+        }
+        for (int i = 0; i < this.labelCount; i++) {
+            if (this.labels[i] == null) {
+                return "labels cannot be null";
+            } else if (this.labelIds != null && !(Integer.valueOf(i).equals(this.labelIds.get(this.labels[i])))) {
+                return "label ids must match the label table";
+            }
+        }
+        if ((this.nodeOrder == null) != (this.labelOrder == null)) {
+            return "a graph is sorted by both nodes and labels or by neither";
+        } else if (this.labelIds != null && this.labelIds.size() != this.labelCount) {
+            return "every label id must be in the table";
+        } else if (edgeCount != this.totalEdges) {
+            return "edge count must match the edges in the graph";
+        } else if (!(this.parents.keySet().equals(this.graph.keySet()))) {
+            return "parents must match nodes";
+        }
+        for (T child : this.parents.keySet()) {
+            for (T parent : this.parents.get(child)) {
+                if (!(graph.get(parent).containsKey(child))) {
+                    return "parents must have an edge to child";
                 }
             }
         }
+        return null;
+    }
+
+    /**
+     * Returns true if the labels of an edge list are in labelOrder, or if this graph
+     * is not sorted
+     * @spec.requires every label id in edges is in the label table
+     */
+    private boolean isInLabelOrder(int[] edges) {
+        if (this.labelOrder != null) {
+            for (int i = 1; i < edges.length; i++) {
+                if (this.labelOrder.compare(label(edges[i - 1]), label(edges[i])) > 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if some label id is in the edge list more than once
+     */
+    private static boolean hasRepeats(int[] edges) {
+        if (edges.length > 1) {
+            Set<Integer> seen = new HashSet<>();
+            for (int labelId : edges) {
+                if (!(seen.add(labelId))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * How much of the rep invariant checkRep checks.
+     */
+    private enum CheckLevel {
+        NONE, INCREMENTAL, FULL;
+
+        /**
+         * @param property the value of the graph.checkRep system property, may be null
+         * @return the matching level, NONE if the property is not set
+         * @throws IllegalArgumentException if the property is set to an unknown level
+         */
+        static CheckLevel of(String property) {
+            if (property == null || property.isEmpty()) {
+                return NONE;
+            }
+            return valueOf(property.toUpperCase());
+        }
     }
 
     /**
      * Returns if graph is empty or not
      * @return true if graph has no nodes, false if graph has nodes
      */
+    @Override
     public boolean isEmpty() {
         checkRep();
         return this.graph.isEmpty();
@@ -236,9 +1043,20 @@ public class Graph<T, E> {
      * Clears the graph of all nodes and edges
      * @spec.modifies this
      */
+    @Override
     public void clear() {
         checkRep();
-        this.graph.clear();
+        beginWrite();
+        // new maps rather than clear(), since a snapshot may share the old ones
+        this.graph = new HashMap<>();
+        this.parents = new HashMap<>();
+        this.labels = new Object[16];
+        this.labelCount = 0;
+        this.labelIds = new HashMap<>();
+        this.owned = null;
+        this.components = null;
+        this.totalEdges = 0;
+        this.version++;
         checkRep();
     }
 
@@ -249,6 +1067,7 @@ public class Graph<T, E> {
      * @return true if node is in the graph, false if not in the graph
      * @throws IllegalArgumentException if node is null
      */
+    @Override
     public boolean containsNode(T node) {
         checkRep();
         if (node == null) {
@@ -257,61 +1076,127 @@ public class Graph<T, E> {
         return graph.containsKey(node);
     }
 
-
     /**
-     * This class represents a single, immutable edge. An edge points to
-     * an end node from starter node. Edges also store the label.
+     * Returns false if there is certainly no path from one node to another, because no
+     * chain of edges joins them even when the direction of the edges is ignored. A
+     * true answer only means a search may find a path; in a graph where every edge has
+     * a matching edge back, like the marvel graph, it means there is one. The first call
+     * groups the nodes into components, in time proportional to the size of the graph.
+     * Adding nodes and edges keeps the groups up to date, so later calls take nearly
+     * O(1) time, until a node or edge is removed and the next call groups them again.
+     * @param from the node a path would start at
+     * @param to the node a path would end at
+     * @spec.requires from != null and to != null
+     * @return false if no path leads from from to to, true if one may
+     * @throws IllegalArgumentException if from or to is null or not in the graph
      */
-    public class Edge {
-        private T parent;
-        private T child;
-        private E label;
-        /**
-         * Create edge with parent and child node and a label
-         * @param parent starting node
-         * @param child ending node
-         * @param label label of the edge
-         * @spec.requires child, parent, label != null
-         * @throws IllegalArgumentException if null
-         */
-        public Edge(T parent, T child, E label) {
-            if (parent == null) {
-                throw new IllegalArgumentException("The parent cannot be null");
-            } else if (child == null) {
-                throw new IllegalArgumentException("The child cannot be null");
-            } else if (label == null) {
-                throw new IllegalArgumentException("The label cannot be null");
-            } else {
-                this.parent = parent;
-                this.child = child;
-                this.label = label;
-            }
-            checkRep();
+    @Override
+    public boolean mayReach(T from, T to) {
+        checkRep();
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        } else if (!(this.graph.containsKey(from)) || !(this.graph.containsKey(to))) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
         }
+        ComponentIndex<T> index = this.components;
+        if (index == null) {
+            // built completely before it is published, so readers of a snapshot that
+            // build it at the same time each see a finished index
+            index = ComponentIndex.of(this);
+            this.components = index;
+        }
+        return index.connected(from, to);
+    }
+
+    /**
+     * Returns the number of times this graph has been changed. Every call that adds or
+     * removes a node or edge, or clears the graph, makes the version larger, so a result
+     * computed from the graph is still correct as long as the version it was computed at
+     * is still the version. A snapshot never changes, so neither does its version.
+     * @return the version of this graph
+     */
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Returns the order of the children of a node in a sorted graph
+     * @return the order this graph keeps children in, or null if it does not keep its
+     * edges sorted
+     */
+    @Override
+    public final Comparator<? super T> nodeOrder() {
+        return this.nodeOrder;
+    }
+
+    /**
+     * Returns the order of the labels between the same two nodes in a sorted graph
+     * @return the order this graph keeps labels in, or null if it does not keep its
+     * edges sorted
+     */
+    @Override
+    public final Comparator<? super E> labelOrder() {
+        return this.labelOrder;
+    }
+
+
+    /**
+     * A live set view of the edges starting at one node, read straight from the
+     * child map of that node. It does not support changes. A graph never holds the
+     * same edge twice, so the view never returns equal edges and its size is the
+     * number of edges of the node.
+     */
+    class EdgeView extends AbstractSet<Edge<T, E>> {
+        private final T parent;
+        private final Map<T, int[]> children;
 
         /**
-         * Return the parent of the edge
-         * @return parent of edge
+         * @param parent the node the edges start at
+         * @param children the label ids of the edges of parent, grouped by child node
+         * @spec.requires parent != null and children != null
          */
-        public T getParent() {
-            return this.parent;
+        EdgeView(T parent, Map<T, int[]> children) {
+            this.parent = parent;
+            this.children = children;
         }
 
-        /**
-         * Return the child of the edge
-         * @return child of edge
-         */
-        public T getChild() {
-            return this.child;
+        @Override
+        public Iterator<Edge<T, E>> iterator() {
+            return new Iterator<Edge<T, E>>() {
+                private final Iterator<Map.Entry<T, int[]>> lists = children.entrySet().iterator();
+                private T child = null;
+                private int[] current = new int[0];
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    while (index == current.length && lists.hasNext()) {
+                        Map.Entry<T, int[]> entry = lists.next();
+                        child = entry.getKey();
+                        current = entry.getValue();
+                        index = 0;
+                    }
+                    return index < current.length;
+                }
+
+                @Override
+                public Edge<T, E> next() {
+                    if (!(hasNext())) {
+                        throw new NoSuchElementException();
+                    }
+                    return new Edge<>(parent, child, label(current[index++]));
+                }
+            };
         }
 
-        /**
-         * Returns the label of the edge
-         * @return label of edge
-         */
-        public E getLabel() {
-            checkRep();
-            return this.label;
+        @Override
+        public int size() {
+            int size = 0;
+            for (int[] edges : this.children.values()) {
+                size += edges.length;
+            }
+            return size;
         }
     }
-}
\ No newline at end of file
+}
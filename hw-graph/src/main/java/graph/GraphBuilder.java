@@ -0,0 +1,275 @@
+package graph;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * GraphBuilder loads many nodes and edges into a new Graph at once. Unlike
+ * Graph#addNode and Graph#addEdge, adding to a builder does not check the rep
+ * invariant on every call; the whole graph is checked once, when build() is
+ * called. Its node table can be sized up front with expectedNodes(int) so it does
+ * not have to grow while the graph is loaded, and it can build a sorted graph, see
+ * sortedBy. Adding a node or an edge that was
+ * already added has no effect, and nodes may be added before or after the edges
+ * that use them. A builder can only build one graph.
+ */
+public class GraphBuilder<T, E> {
+    private Graph<T, E> graph;
+    private int expectedNodes = 0;
+    // the orders of the built graph, both null for an unsorted graph
+    private Comparator<? super T> nodeOrder = null;
+    private Comparator<? super E> labelOrder = null;
+    // nodes that so far only appear in edges and were never added themselves
+    private final Set<T> undeclared = new HashSet<>();
+    private boolean built = false;
+
+    // Rep Invariant:
+    // undeclared != null, expectedNodes >= 0
+    // nodeOrder == null exactly when labelOrder == null
+    // built implies graph == null
+    // graph != null implies undeclared is a subset of the nodes of graph
+    //
+    // Abstract Function:
+    // GraphBuilder b represents the graph that build() will return: the nodes and
+    // edges of graph, or an empty graph if graph is null (nothing added yet). The
+    // graph is incomplete while undeclared is not empty. After build() is called
+    // graph is handed to the caller and b can no longer be used.
+
+    /**
+     * Constructs a new builder for an empty graph
+     * @spec.effects constructs a new builder with no nodes and no edges
+     */
+    public GraphBuilder() {
+    }
+
+    /**
+     * Sets the number of nodes the graph is expected to hold, so the node table of the
+     * graph is allocated once at the right size instead of growing while it is loaded.
+     * Must be called before anything is added.
+     * @param expectedNodes the number of nodes expected
+     * @return this builder
+     * @throws IllegalArgumentException if expectedNodes is negative
+     * @throws IllegalStateException if nodes or edges were already added or the graph was built
+     */
+    public GraphBuilder<T, E> expectedNodes(int expectedNodes) {
+        checkNotBuilt();
+        if (expectedNodes < 0) {
+            throw new IllegalArgumentException("Expected node count cannot be negative");
+        } else if (this.graph != null) {
+            throw new IllegalStateException("Size hints must be given before adding to the graph");
+        }
+        this.expectedNodes = expectedNodes;
+        return this;
+    }
+
+    /**
+     * Makes the builder build a sorted graph, as Graph(Comparator, Comparator) does,
+     * whose edges are kept sorted by child in nodeOrder, then by label in labelOrder.
+     * Must be called before anything is added.
+     * @param nodeOrder the order of the children of a node
+     * @param labelOrder the order of the labels between the same two nodes
+     * @return this builder
+     * @throws IllegalArgumentException if nodeOrder or labelOrder is null
+     * @throws IllegalStateException if nodes or edges were already added or the graph was built
+     */
+    public GraphBuilder<T, E> sortedBy(Comparator<? super T> nodeOrder, Comparator<? super E> labelOrder) {
+        checkNotBuilt();
+        if (nodeOrder == null || labelOrder == null) {
+            throw new IllegalArgumentException("Orders cannot be null");
+        } else if (this.graph != null) {
+            throw new IllegalStateException("Orders must be given before adding to the graph");
+        }
+        this.nodeOrder = nodeOrder;
+        this.labelOrder = labelOrder;
+        return this;
+    }
+
+    /**
+     * Adds a node to the graph being built. Adding a node twice has no effect.
+     * @param node the node to add
+     * @return this builder
+     * @spec.modifies this
+     * @spec.effects the built graph will contain node
+     * @throws IllegalArgumentException if node is null
+     * @throws IllegalStateException if the graph was already built
+     */
+    public GraphBuilder<T, E> addNode(T node) {
+        checkNotBuilt();
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        if (!(this.undeclared.isEmpty())) {
+            this.undeclared.remove(node);
+        }
+        graph().putNode(node);
+        return this;
+    }
+
+    /**
+     * Adds every node of a collection to the graph being built. Nodes that were already
+     * added, or that appear more than once in nodes, are only added once.
+     * @param nodes the nodes to add
+     * @return this builder
+     * @spec.modifies this
+     * @spec.effects the built graph will contain every node of nodes
+     * @throws IllegalArgumentException if nodes is null or contains null
+     * @throws IllegalStateException if the graph was already built
+     */
+    public GraphBuilder<T, E> addNodes(Collection<? extends T> nodes) {
+        checkNotBuilt();
+        if (nodes == null) {
+            throw new IllegalArgumentException("Nodes cannot be null");
+        }
+        for (T node : nodes) {
+            addNode(node);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge to the graph being built. Its nodes do not have to be added yet, but
+     * they must be added before build() is called.
+     * @param parent is the beginning node
+     * @param child is the ending node
+     * @param label is the label of the edge
+     * @return this builder
+     * @spec.modifies this
+     * @spec.effects the built graph will contain an edge from parent to child labeled label,
+     * once however many times it is added
+     * @throws IllegalArgumentException if parent, child, or label is null
+     * @throws IllegalStateException if the graph was already built
+     */
+    public GraphBuilder<T, E> addEdge(T parent, T child, E label) {
+        checkNotBuilt();
+        if (parent == null || child == null || label == null) {
+            throw new IllegalArgumentException("Node and label cannot be null");
+        }
+        Graph<T, E> graph = graph();
+        // hasNode rather than containsNode, which would check the rep on every edge
+        if (!(graph.hasNode(parent))) {
+            this.undeclared.add(parent);
+        }
+        if (!(graph.hasNode(child))) {
+            this.undeclared.add(child);
+        }
+        graph.putEdge(parent, child, label);
+        return this;
+    }
+
+    /**
+     * Adds every edge of a stream to the graph being built, as addEdge does.
+     * @param edges the edges to add
+     * @return this builder
+     * @spec.modifies this
+     * @spec.effects the built graph will contain every edge of edges
+     * @throws IllegalArgumentException if edges is null or contains null
+     * @throws IllegalStateException if the graph was already built
+     */
+    public GraphBuilder<T, E> addEdges(Stream<? extends EdgeSpec<? extends T, ? extends E>> edges) {
+        checkNotBuilt();
+        if (edges == null) {
+            throw new IllegalArgumentException("Edges cannot be null");
+        }
+        edges.forEachOrdered(edge -> {
+            if (edge == null) {
+                throw new IllegalArgumentException("Edge cannot be null");
+            }
+            addEdge(edge.getParent(), edge.getChild(), edge.getLabel());
+        });
+        return this;
+    }
+
+    /**
+     * Returns the graph with every node and edge added to this builder, after checking
+     * it once. The builder cannot be used afterwards.
+     * @return the built graph
+     * @spec.modifies this
+     * @throws IllegalArgumentException if an edge uses a node that was never added
+     * @throws IllegalStateException if the graph was already built
+     */
+    public Graph<T, E> build() {
+        checkNotBuilt();
+        if (!(this.undeclared.isEmpty())) {
+            throw new IllegalArgumentException("Edge node was never added to the graph: "
+                    + this.undeclared.iterator().next());
+        }
+        Graph<T, E> result = graph();
+        if (this.nodeOrder != null) {
+            // sorted once here instead of on every edge added
+            result = result.sortedBy(this.nodeOrder, this.labelOrder);
+        }
+        result.validate();
+        this.graph = null;
+        this.built = true;
+        return result;
+    }
+
+    /**
+     * Returns the graph being built, creating it with the size hints on first use
+     */
+    private Graph<T, E> graph() {
+        if (this.graph == null) {
+            this.graph = new Graph<>(this.expectedNodes);
+        }
+        return this.graph;
+    }
+
+    private void checkNotBuilt() {
+        if (this.built) {
+            throw new IllegalStateException("Graph was already built");
+        }
+    }
+
+    /**
+     * EdgeSpec describes an edge to add with addEdges: a parent node, a child node
+     * and a label. It is immutable.
+     */
+    public static final class EdgeSpec<T, E> {
+        private final T parent;
+        private final T child;
+        private final E label;
+
+        /**
+         * Creates a description of the edge from parent to child labeled label
+         * @param parent starting node
+         * @param child ending node
+         * @param label label of the edge
+         * @throws IllegalArgumentException if parent, child, or label is null
+         */
+        public EdgeSpec(T parent, T child, E label) {
+            if (parent == null || child == null || label == null) {
+                throw new IllegalArgumentException("Node and label cannot be null");
+            }
+            this.parent = parent;
+            this.child = child;
+            this.label = label;
+        }
+
+        /**
+         * Returns the parent of the edge
+         * @return the starting node
+         */
+        public T getParent() {
+            return this.parent;
+        }
+
+        /**
+         * Returns the child of the edge
+         * @return the ending node
+         */
+        public T getChild() {
+            return this.child;
+        }
+
+        /**
+         * Returns the label of the edge
+         * @return the label of the edge
+         */
+        public E getLabel() {
+            return this.label;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package graph;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A GraphCodec writes the nodes or labels of a graph to a GraphFile and reads
+ * them back. read must return a value equal to the one write was given, and must
+ * consume exactly the bytes write produced. write must produce at least one byte
+ * for every value, which lets GraphFile reject node and label counts larger than
+ * the file before it allocates the tables.
+ * @param <V> the type of value encoded
+ */
+public interface GraphCodec<V> {
+
+    /**
+     * Writes one value
+     * @param out the stream to write to
+     * @param value the value to write
+     * @spec.requires out != null and value != null
+     * @throws IOException if out cannot be written
+     */
+    void write(DataOutput out, V value) throws IOException;
+
+    /**
+     * Reads one value written by write, starting at the position of in and
+     * leaving in positioned just after it
+     * @param in the bytes to read from
+     * @spec.requires in != null
+     * @return the value read
+     * @throws java.nio.BufferUnderflowException if in ends before the value does
+     * @throws IOException if the bytes are not a value written by write
+     */
+    V read(ByteBuffer in) throws IOException;
+
+    /**
+     * Returns a codec for strings, stored as their length in bytes followed by the
+     * bytes of their UTF-8 encoding
+     * @return a codec for strings
+     */
+    static GraphCodec<String> strings() {
+        return new GraphCodec<String>() {
+            @Override
+            public void write(DataOutput out, String value) throws IOException {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            public String read(ByteBuffer in) throws IOException {
+                int length = in.getInt();
+                // checked before allocating, since a damaged file can hold any length
+                if (length < 0 || length > in.remaining()) {
+                    throw new IOException("Corrupt string length " + length);
+                }
+                byte[] bytes = new byte[length];
+                in.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for doubles, stored as 8 bytes
+     * @return a codec for doubles
+     */
+    static GraphCodec<Double> doubles() {
+        return new GraphCodec<Double>() {
+            @Override
+            public void write(DataOutput out, Double value) throws IOException {
+                out.writeDouble(value);
+            }
+
+            @Override
+            public Double read(ByteBuffer in) {
+                return in.getDouble();
+            }
+        };
+    }
+}
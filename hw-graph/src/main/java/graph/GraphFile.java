@@ -0,0 +1,189 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GraphFile saves an ImmutableGraph to a binary file and loads it back. Loading
+ * memory-maps the file and reads the edges straight from the mapping, so only the
+ * nodes and the distinct labels are decoded; no per-edge objects are made.
+ *
+ * The file holds, in order and big-endian:
+ * <pre>
+ * int magic ("CSEG"), int version (1), int nodeCount, int edgeCount, int labelCount
+ * int[nodeCount + 1] offsets   first edge index of each node id, then edgeCount
+ * int[edgeCount] targets       child node id of each edge
+ * int[edgeCount] labelIds      label table index of each edge
+ * nodeCount nodes              in id order, written by the node codec
+ * labelCount labels            in index order, written by the label codec
+ * </pre>
+ */
+public final class GraphFile {
+    /* Not an ADT */
+
+    private static final int MAGIC = 0x43534547;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    private GraphFile() {
+    }
+
+    /**
+     * Writes a graph to a file, replacing the file if it exists
+     * @param graph the graph to write
+     * @param file the file to write to
+     * @param nodeCodec writes the nodes of graph
+     * @param labelCodec writes the labels of graph
+     * @param <T> the type of node
+     * @param <E> the type of label
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the file cannot be written
+     */
+    public static <T, E> void write(ImmutableGraph<T, E> graph, Path file, GraphCodec<T> nodeCodec,
+                                    GraphCodec<E> labelCodec) throws IOException {
+        if (graph == null || file == null || nodeCodec == null || labelCodec == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        int nodeCount = graph.totalNodes();
+        int edgeCount = graph.totalEdges();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(edgeCount);
+            out.writeInt(graph.totalLabels());
+            for (int id = 0; id < nodeCount; id++) {
+                out.writeInt(graph.edgeStart(id));
+            }
+            out.writeInt(edgeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                out.writeInt(graph.target(e));
+            }
+            for (int e = 0; e < edgeCount; e++) {
+                out.writeInt(graph.labelIndex(e));
+            }
+            for (int id = 0; id < nodeCount; id++) {
+                nodeCodec.write(out, graph.nodeAt(id));
+            }
+            for (int index = 0; index < graph.totalLabels(); index++) {
+                labelCodec.write(out, graph.labelAt(index));
+            }
+        }
+    }
+
+    /**
+     * Loads a graph written by write. The edges stay in the memory-mapped file
+     * instead of being copied onto the heap.
+     * @param file the file to read
+     * @param nodeCodec reads the nodes of the graph
+     * @param labelCodec reads the labels of the graph
+     * @param <T> the type of node
+     * @param <E> the type of label
+     * @return the graph stored in file
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the file cannot be read or is not a valid graph file
+     */
+    public static <T, E> ImmutableGraph<T, E> load(Path file, GraphCodec<T> nodeCodec,
+                                                   GraphCodec<E> labelCodec) throws IOException {
+        if (file == null || nodeCodec == null || labelCodec == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a graph file: " + file);
+            } else if (mapped.getInt(4) != VERSION) {
+                throw new IOException("Unsupported graph file version " + mapped.getInt(4) + ": " + file);
+            }
+            int nodeCount = mapped.getInt(8);
+            int edgeCount = mapped.getInt(12);
+            int labelCount = mapped.getInt(16);
+            if (nodeCount < 0 || edgeCount < 0 || labelCount < 0) {
+                throw new IOException("Corrupt graph file: " + file);
+            }
+            int position = HEADER_BYTES;
+            IntBuffer offsets = intView(mapped, position, nodeCount + 1L);
+            position += (nodeCount + 1) * Integer.BYTES;
+            IntBuffer targets = intView(mapped, position, edgeCount);
+            position += edgeCount * Integer.BYTES;
+            IntBuffer labelIds = intView(mapped, position, edgeCount);
+            position += edgeCount * Integer.BYTES;
+            // every node and label takes at least one byte, so larger counts cannot be
+            // right; checked before the tables are allocated
+            if ((long) nodeCount + labelCount > mapped.capacity() - position) {
+                throw new IOException("Corrupt graph file: " + file);
+            }
+
+            checkEdges(file, offsets, targets, labelIds, nodeCount, labelCount);
+            ByteBuffer tables = mapped.duplicate();
+            tables.position(position);
+            Object[] nodes = new Object[nodeCount];
+            for (int id = 0; id < nodeCount; id++) {
+                nodes[id] = nodeCodec.read(tables);
+            }
+            Object[] labels = new Object[labelCount];
+            for (int index = 0; index < labelCount; index++) {
+                labels[index] = labelCodec.read(tables);
+            }
+            try {
+                return new ImmutableGraph<>(nodes, offsets, targets, labelIds, labels);
+            } catch (IllegalArgumentException e) {
+                // the node table holds null or a node twice
+                throw new IOException("Corrupt graph file: " + file, e);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated graph file: " + file, e);
+        }
+    }
+
+    /**
+     * Returns an int view of length ints of buffer, starting at byte position
+     * @throws IndexOutOfBoundsException if the view does not fit in buffer
+     */
+    private static IntBuffer intView(ByteBuffer buffer, int position, long length) {
+        if (position + length * Integer.BYTES > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("Graph file ends inside the edge arrays");
+        }
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.position(position);
+        bytes.limit(position + (int) length * Integer.BYTES);
+        return bytes.slice().asIntBuffer();
+    }
+
+    /**
+     * Checks that the edge arrays of a loaded file satisfy the rep invariant of
+     * ImmutableGraph, so a damaged file is rejected here instead of failing later.
+     * @throws IOException if they do not
+     */
+    private static void checkEdges(Path file, IntBuffer offsets, IntBuffer targets, IntBuffer labelIds,
+                                   int nodeCount, int labelCount) throws IOException {
+        if (offsets.get(0) != 0 || offsets.get(nodeCount) != targets.limit()) {
+            throw new IOException("Corrupt graph file: " + file);
+        }
+        for (int id = 0; id < nodeCount; id++) {
+            if (offsets.get(id) > offsets.get(id + 1)) {
+                throw new IOException("Corrupt graph file: " + file);
+            }
+        }
+        for (int e = 0; e < targets.limit(); e++) {
+            int target = targets.get(e);
+            int label = labelIds.get(e);
+            if (target < 0 || target >= nodeCount || label < 0 || label >= labelCount) {
+                throw new IOException("Corrupt graph file: " + file);
+            }
+        }
+    }
+}
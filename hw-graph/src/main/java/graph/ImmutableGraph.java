@@ -0,0 +1,273 @@
+package graph;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ImmutableGraph is a read-only, compact form of a Graph meant for graphs that
+ * are built once and then queried many times. Every node is given a dense int id
+ * in the range [0, totalNodes()) and the outgoing edges of all nodes are packed
+ * into parallel arrays (compressed sparse row form). The edges of node id are the
+ * edge indexes in [edgeStart(id), edgeEnd(id)), and target(e) and label(e) give
+ * the child id and label of edge index e. Walking the neighbors of a node this way
+ * does not create any Edge objects or copy any sets.
+ * An ImmutableGraph is created with Graph#freeze(), or loaded from a file with
+ * GraphFile#load, and never changes afterwards.
+ */
+public final class ImmutableGraph<T, E> {
+    private final Object[] nodes;
+    private final Map<T, Integer> ids;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer labelIds;
+    private final Object[] labels;
+    // The weakly connected component of each node id, see mayReach; computed on first
+    // use. Not part of the abstract value.
+    private volatile int[] components = null;
+
+    // Rep Invariant:
+    // nodes, ids, offsets, targets, labelIds and labels != null
+    // no element of nodes or labels is null
+    // ids.get(nodes[i]) == i for every i, and ids.size() == nodes.length
+    // offsets.limit() == nodes.length + 1, offsets.get(0) == 0,
+    // offsets.get(nodes.length) == targets.limit() == labelIds.limit()
+    // offsets is non-decreasing
+    // 0 <= targets.get(e) < nodes.length and 0 <= labelIds.get(e) < labels.length
+    // for every edge index e
+    //
+    // Abstract Function:
+    // ImmutableGraph g represents the graph whose nodes are the elements of nodes.
+    // For every node id i and every edge index e with offsets[i] <= e < offsets[i + 1]
+    // there is an edge from nodes[i] to nodes[targets[e]] labeled labels[labelIds[e]].
+    // labels holds each distinct label once. The int buffers are either wrapped
+    // arrays or views of a memory-mapped graph file; they are only read with
+    // absolute get, so they are never changed.
+
+    /**
+     * Creates an immutable graph from already packed edges. The buffers and arrays
+     * are used directly and must not be changed by the caller afterwards.
+     * @param nodes the node of each id
+     * @param offsets the first edge index of each node id, followed by the total edge count
+     * @param targets the child id of each edge index
+     * @param labelIds the index in labels of the label of each edge index
+     * @param labels each distinct label
+     * @spec.requires the arguments other than nodes satisfy the rep invariant of this class
+     * @throws IllegalArgumentException if nodes holds null or the same node twice
+     */
+    ImmutableGraph(Object[] nodes, IntBuffer offsets, IntBuffer targets, IntBuffer labelIds,
+                   Object[] labels) {
+        this.nodes = nodes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labelIds = labelIds;
+        this.labels = labels;
+        this.ids = new HashMap<>();
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == null) {
+                throw new IllegalArgumentException("Node cannot be null");
+            } else if (this.ids.put(castNode(nodes[i]), i) != null) {
+                // otherwise idOf and nodeAt would no longer agree
+                throw new IllegalArgumentException("Duplicate node: " + nodes[i]);
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Returns the total number of nodes in the graph
+     * @return the number of nodes in the graph
+     */
+    public int totalNodes() {
+        return this.nodes.length;
+    }
+
+    /**
+     * Returns the total number of edges in the graph
+     * @return the number of edges in the graph
+     */
+    public int totalEdges() {
+        return this.targets.limit();
+    }
+
+    /**
+     * Checks if a given node is inside the graph
+     * @param node node to see if is in the graph
+     * @return true if node is in the graph, false if not in the graph
+     * @throws IllegalArgumentException if node is null
+     */
+    public boolean containsNode(T node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        return this.ids.containsKey(node);
+    }
+
+    /**
+     * Returns the id of the given node
+     * @param node the node to look up
+     * @return the id of node, between 0 and totalNodes() - 1
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    public int idOf(T node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        Integer id = this.ids.get(node);
+        if (id == null) {
+            throw new IllegalArgumentException("Graph does not contain the given node");
+        }
+        return id;
+    }
+
+    /**
+     * Returns the node with the given id
+     * @param id the id of the node
+     * @return the node with the given id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public T nodeAt(int id) {
+        return castNode(this.nodes[id]);
+    }
+
+    /**
+     * Returns the index of the first outgoing edge of the given node
+     * @param id the id of the parent node
+     * @return the first edge index of node id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public int edgeStart(int id) {
+        checkId(id);
+        return this.offsets.get(id);
+    }
+
+    /**
+     * Returns the index one past the last outgoing edge of the given node
+     * @param id the id of the parent node
+     * @return the end (exclusive) of the edge indexes of node id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public int edgeEnd(int id) {
+        checkId(id);
+        return this.offsets.get(id + 1);
+    }
+
+    /**
+     * Returns the number of outgoing edges of the given node
+     * @param id the id of the parent node
+     * @return the number of edges starting at node id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public int outDegree(int id) {
+        checkId(id);
+        return this.offsets.get(id + 1) - this.offsets.get(id);
+    }
+
+    /**
+     * Returns false if there is certainly no path from one node to another, like
+     * Graph#mayReach. The first call groups the nodes into components, in time
+     * proportional to the size of the graph; later calls take O(1) time.
+     * @param fromId the id of the node a path would start at
+     * @param toId the id of the node a path would end at
+     * @return false if no path leads from node fromId to node toId, true if one may
+     * @throws IndexOutOfBoundsException if fromId or toId is not a valid node id
+     */
+    public boolean mayReach(int fromId, int toId) {
+        checkId(fromId);
+        checkId(toId);
+        int[] componentOf = this.components;
+        if (componentOf == null) {
+            // filled in completely before it is published, for concurrent readers
+            componentOf = ComponentIndex.componentsOf(this);
+            this.components = componentOf;
+        }
+        return componentOf[fromId] == componentOf[toId];
+    }
+
+    /**
+     * Returns the id of the child node of an edge
+     * @param edge the edge index
+     * @return the id of the node the edge points to
+     * @throws IndexOutOfBoundsException if edge is not a valid edge index
+     */
+    public int target(int edge) {
+        return this.targets.get(edge);
+    }
+
+    /**
+     * Returns the label of an edge
+     * @param edge the edge index
+     * @return the label of the edge
+     * @throws IndexOutOfBoundsException if edge is not a valid edge index
+     */
+    public E label(int edge) {
+        return labelAt(this.labelIds.get(edge));
+    }
+
+    /**
+     * Returns the number of distinct labels in the graph
+     * @return the size of the label table
+     */
+    int totalLabels() {
+        return this.labels.length;
+    }
+
+    /**
+     * Returns the label with the given index in the label table
+     * @param index the index of the label, between 0 and totalLabels() - 1
+     * @return the label at index
+     */
+    @SuppressWarnings("unchecked")
+    E labelAt(int index) {
+        return (E) this.labels[index];
+    }
+
+    /**
+     * Returns the index in the label table of the label of an edge
+     * @param edge the edge index
+     * @return the label index of the edge
+     */
+    int labelIndex(int edge) {
+        return this.labelIds.get(edge);
+    }
+
+    /**
+     * Creates a mutable Graph with the same nodes and edges as this graph
+     * @return a new Graph holding every node and edge of this graph
+     */
+    public Graph<T, E> toGraph() {
+        GraphBuilder<T, E> builder = new GraphBuilder<T, E>().expectedNodes(this.nodes.length);
+        for (int id = 0; id < this.nodes.length; id++) {
+            builder.addNode(nodeAt(id));
+        }
+        for (int id = 0; id < this.nodes.length; id++) {
+            T parent = nodeAt(id);
+            for (int e = this.offsets.get(id); e < this.offsets.get(id + 1); e++) {
+                builder.addEdge(parent, nodeAt(this.targets.get(e)), label(e));
+            }
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T castNode(Object node) {
+        return (T) node;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= this.nodes.length) {
+            throw new IndexOutOfBoundsException("Invalid node id: " + id);
+        }
+    }
+
+    private void checkRep() {
+        assert (this.nodes != null && this.ids != null) : "node table can't be null";
+        assert (this.offsets != null && this.targets != null && this.labelIds != null
+                && this.labels != null) : "edge arrays can't be null";
+        assert (this.offsets.limit() == this.nodes.length + 1) : "one offset per node plus the end";
+        assert (this.offsets.get(0) == 0) : "edges must start at index 0";
+        assert (this.ids.size() == this.nodes.length) : "no duplicate nodes";
+        assert (this.offsets.get(this.nodes.length) == this.targets.limit()) : "offsets must cover every edge";
+        assert (this.targets.limit() == this.labelIds.limit()) : "every edge needs a label";
+    }
+}
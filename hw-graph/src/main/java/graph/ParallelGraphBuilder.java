@@ -0,0 +1,390 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+
+/**
+ * ParallelGraphBuilder builds a Graph on several threads of a ForkJoinPool. The
+ * input is a list of groups (for example the comic books of a dataset), each of
+ * which adds some nodes and edges to a Shard. addAll splits the groups between
+ * the workers of the pool, and every worker fills its own Shard, so loading takes
+ * no locks. Each Shard sorts its edges into buckets by the hash of their parent
+ * node. build() then assembles every bucket of every shard in parallel into the
+ * edges of the nodes of that bucket, which no other bucket touches, so the final
+ * graph is made by joining the buckets rather than by adding every edge again.
+ *
+ * Like GraphBuilder, adding a node or an edge more than once has no effect, nodes may be
+ * added after the edges that use them, and build() rejects edges whose nodes were
+ * never added. A builder can only build one graph.
+ */
+public class ParallelGraphBuilder<T, E> {
+    private final ForkJoinPool pool;
+    private final int buckets;
+    private final Queue<Shard<T, E>> shards = new ConcurrentLinkedQueue<>();
+    private boolean built = false;
+
+    // Rep Invariant:
+    // pool != null, buckets > 0, shards != null and every shard in shards has buckets buckets
+    //
+    // Abstract Function:
+    // ParallelGraphBuilder b represents the graph that build() will return: the union
+    // of the nodes and edges added to every shard in shards. After build() is called b
+    // can no longer be used.
+
+    /**
+     * Constructs a new builder that works on the common ForkJoinPool
+     * @spec.effects constructs a new builder with no nodes and no edges
+     */
+    public ParallelGraphBuilder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new builder that works on the given pool
+     * @param pool the pool to load and build the graph on
+     * @spec.effects constructs a new builder with no nodes and no edges
+     * @throws IllegalArgumentException if pool is null
+     */
+    public ParallelGraphBuilder(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.pool = pool;
+        // a few buckets per worker, so one large bucket does not hold up the others
+        this.buckets = 4 * pool.getParallelism();
+        checkRep();
+    }
+
+    /**
+     * Loads every group in parallel: loader is called once for each group, with the
+     * shard of the thread running it, and adds the nodes and edges of that group to
+     * the shard. Every thread that takes part (the workers of the pool and possibly the
+     * caller) fills one shard, however many pieces the groups are split into. loader may be called from several threads at once, but never with
+     * the same shard at the same time.
+     * @param groups the groups to load
+     * @param loader adds the nodes and edges of one group to a shard
+     * @param <G> the type of group
+     * @return this builder
+     * @spec.modifies this
+     * @throws IllegalArgumentException if groups or loader is null, or if loader adds a
+     * null node, edge, or label
+     * @throws IllegalStateException if the graph was already built
+     */
+    public <G> ParallelGraphBuilder<T, E> addAll(List<? extends G> groups,
+                                                 BiConsumer<? super G, ? super Shard<T, E>> loader) {
+        checkNotBuilt();
+        if (groups == null || loader == null) {
+            throw new IllegalArgumentException("Groups and loader cannot be null");
+        }
+        // enough pieces to keep every worker busy when groups differ in size, but one
+        // shard per thread, filled by every piece that thread runs
+        int pieceSize = Math.max(1, groups.size() / (8 * this.pool.getParallelism()));
+        Map<Thread, Shard<T, E>> byThread = new ConcurrentHashMap<>();
+        this.pool.invoke(new RangeTask(0, groups.size(), pieceSize, (from, to) -> {
+            Shard<T, E> shard = byThread.computeIfAbsent(Thread.currentThread(), t -> new Shard<>(this.buckets));
+            for (int i = from; i < to; i++) {
+                loader.accept(groups.get(i), shard);
+            }
+        }));
+        this.shards.addAll(byThread.values());
+        checkRep();
+        return this;
+    }
+
+    /**
+     * Returns the graph with every node and edge added to this builder. The builder
+     * cannot be used afterwards.
+     * @return the built graph
+     * @spec.modifies this
+     * @throws IllegalArgumentException if an edge uses a node that was never added
+     * @throws IllegalStateException if the graph was already built
+     */
+    public Graph<T, E> build() {
+        checkNotBuilt();
+        this.built = true;
+        List<Shard<T, E>> shards = new ArrayList<>(this.shards);
+        this.shards.clear();
+
+        // one label table for the whole graph; each shard maps its own label ids into it
+        Map<E, Integer> labelIds = new HashMap<>();
+        List<E> labels = new ArrayList<>();
+        for (Shard<T, E> shard : shards) {
+            shard.globalLabels = new int[shard.labels.size()];
+            for (int i = 0; i < shard.labels.size(); i++) {
+                E label = shard.labels.get(i);
+                Integer id = labelIds.get(label);
+                if (id == null) {
+                    id = labels.size();
+                    labelIds.put(label, id);
+                    labels.add(label);
+                }
+                shard.globalLabels[i] = id;
+            }
+        }
+
+        // the edges of the nodes in each bucket, and for every other bucket the
+        // (child, parent) pairs of the edges whose child is in that bucket
+        List<Map<T, Map<T, int[]>>> children = new ArrayList<>(Collections.nCopies(this.buckets, null));
+        List<List<Pairs>> reverse = new ArrayList<>(Collections.nCopies(this.buckets, null));
+        int[] edgeCounts = new int[this.buckets];
+        this.pool.invoke(new RangeTask(0, this.buckets, 1, (from, to) -> {
+            for (int bucket = from; bucket < to; bucket++) {
+                Map<T, Map<T, int[]>> nodes = new HashMap<>();
+                for (Shard<T, E> shard : shards) {
+                    for (T node : shard.nodes.get(bucket)) {
+                        nodes.putIfAbsent(node, new HashMap<>());
+                    }
+                }
+                for (Shard<T, E> shard : shards) {
+                    Edges edges = shard.edges.get(bucket);
+                    for (int i = 0; i < edges.size; i++) {
+                        Map<T, int[]> edgesOfParent = nodes.get(castNode(edges.parents[i]));
+                        if (edgesOfParent == null) {
+                            throw new IllegalArgumentException("Edge node was never added to the graph: "
+                                    + edges.parents[i]);
+                        }
+                        T child = castNode(edges.children[i]);
+                        int label = shard.globalLabels[edges.labels[i]];
+                        int[] edgesOfChild = edgesOfParent.get(child);
+                        // an edge added more than once, by one shard or several, is kept once
+                        if (!(Graph.hasLabel(edgesOfChild, label))) {
+                            edgesOfParent.put(child, Graph.withLabel(edgesOfChild, label));
+                            edgeCounts[bucket]++;
+                        }
+                    }
+                }
+                List<Pairs> pairs = new ArrayList<>();
+                for (int i = 0; i < this.buckets; i++) {
+                    pairs.add(new Pairs());
+                }
+                for (Map.Entry<T, Map<T, int[]>> node : nodes.entrySet()) {
+                    for (T child : node.getValue().keySet()) {
+                        pairs.get(bucketOf(child, this.buckets)).add(child, node.getKey());
+                    }
+                }
+                children.set(bucket, nodes);
+                reverse.set(bucket, pairs);
+            }
+        }));
+
+        // the parents of the nodes in each bucket, from the pairs sent to that bucket
+        List<Map<T, Set<T>>> parents = new ArrayList<>(Collections.nCopies(this.buckets, null));
+        this.pool.invoke(new RangeTask(0, this.buckets, 1, (from, to) -> {
+            for (int bucket = from; bucket < to; bucket++) {
+                Map<T, Set<T>> nodes = new HashMap<>();
+                for (T node : children.get(bucket).keySet()) {
+                    nodes.put(node, new HashSet<>());
+                }
+                for (List<Pairs> pairsFrom : reverse) {
+                    Pairs pairs = pairsFrom.get(bucket);
+                    for (int i = 0; i < pairs.size; i++) {
+                        Set<T> parentsOfChild = nodes.get(castNode(pairs.first[i]));
+                        if (parentsOfChild == null) {
+                            throw new IllegalArgumentException("Edge node was never added to the graph: "
+                                    + pairs.first[i]);
+                        }
+                        parentsOfChild.add(castNode(pairs.second[i]));
+                    }
+                }
+                parents.set(bucket, nodes);
+            }
+        }));
+
+        int totalNodes = 0;
+        int totalEdges = 0;
+        for (int bucket = 0; bucket < this.buckets; bucket++) {
+            totalNodes += children.get(bucket).size();
+            totalEdges += edgeCounts[bucket];
+        }
+        int capacity = Math.max(16, (int) (totalNodes / 0.75f) + 1);
+        Map<T, Map<T, int[]>> graph = new HashMap<>(capacity);
+        Map<T, Set<T>> reverseIndex = new HashMap<>(capacity);
+        for (int bucket = 0; bucket < this.buckets; bucket++) {
+            graph.putAll(children.get(bucket));
+            reverseIndex.putAll(parents.get(bucket));
+        }
+        Object[] labelTable = Arrays.copyOf(labels.toArray(), Math.max(16, labels.size()));
+        return new Graph<>(graph, reverseIndex, totalEdges, labelTable, labels.size(), labelIds);
+    }
+
+    /**
+     * Returns the bucket of a node
+     */
+    private static int bucketOf(Object node, int buckets) {
+        int hash = node.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % buckets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T castNode(Object node) {
+        return (T) node;
+    }
+
+    private void checkNotBuilt() {
+        if (this.built) {
+            throw new IllegalStateException("Graph was already built");
+        }
+    }
+
+    private void checkRep() {
+        assert (this.pool != null) : "pool can't be null";
+        assert (this.buckets > 0) : "there must be a bucket";
+        assert (this.shards != null) : "shards can't be null";
+    }
+
+    /**
+     * A Shard collects the nodes and edges added by one thread during addAll, sorted into buckets by
+     * the hash of the node and the parent node. It is not safe to use from several
+     * threads at once.
+     */
+    public static final class Shard<T, E> {
+        private final List<List<T>> nodes;
+        private final List<Edges> edges;
+        private final int buckets;
+        // the labels of this shard's edges, by the id used in edges
+        private final Map<E, Integer> labelIds = new HashMap<>();
+        private final List<E> labels = new ArrayList<>();
+        // the id in the graph's label table of each label of this shard, set by build()
+        private int[] globalLabels;
+
+        /**
+         * @param buckets the number of buckets
+         * @spec.requires buckets > 0
+         */
+        Shard(int buckets) {
+            this.buckets = buckets;
+            this.nodes = new ArrayList<>(buckets);
+            this.edges = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) {
+                this.nodes.add(new ArrayList<>());
+                this.edges.add(new Edges());
+            }
+        }
+
+        /**
+         * Adds a node to the graph being built. Adding a node twice has no effect.
+         * @param node the node to add
+         * @spec.modifies this
+         * @throws IllegalArgumentException if node is null
+         */
+        public void addNode(T node) {
+            if (node == null) {
+                throw new IllegalArgumentException("Node cannot be null");
+            }
+            this.nodes.get(bucketOf(node, this.buckets)).add(node);
+        }
+
+        /**
+         * Adds an edge to the graph being built. Its nodes must be added to this or
+         * another shard of the same builder before build() is called.
+         * @param parent is the beginning node
+         * @param child is the ending node
+         * @param label is the label of the edge
+         * @spec.modifies this
+         * @throws IllegalArgumentException if parent, child, or label is null
+         */
+        public void addEdge(T parent, T child, E label) {
+            if (parent == null || child == null || label == null) {
+                throw new IllegalArgumentException("Node and label cannot be null");
+            }
+            Integer labelId = this.labelIds.get(label);
+            if (labelId == null) {
+                labelId = this.labels.size();
+                this.labelIds.put(label, labelId);
+                this.labels.add(label);
+            }
+            this.edges.get(bucketOf(parent, this.buckets)).add(parent, child, labelId);
+        }
+    }
+
+    /**
+     * A growable list of edges stored as parallel arrays
+     */
+    private static final class Edges {
+        private Object[] parents = new Object[16];
+        private Object[] children = new Object[16];
+        private int[] labels = new int[16];
+        private int size = 0;
+
+        void add(Object parent, Object child, int label) {
+            if (this.size == this.labels.length) {
+                this.parents = Arrays.copyOf(this.parents, 2 * this.size);
+                this.children = Arrays.copyOf(this.children, 2 * this.size);
+                this.labels = Arrays.copyOf(this.labels, 2 * this.size);
+            }
+            this.parents[this.size] = parent;
+            this.children[this.size] = child;
+            this.labels[this.size] = label;
+            this.size++;
+        }
+    }
+
+    /**
+     * A growable list of pairs of objects stored as parallel arrays
+     */
+    private static final class Pairs {
+        private Object[] first = new Object[16];
+        private Object[] second = new Object[16];
+        private int size = 0;
+
+        void add(Object a, Object b) {
+            if (this.size == this.first.length) {
+                this.first = Arrays.copyOf(this.first, 2 * this.size);
+                this.second = Arrays.copyOf(this.second, 2 * this.size);
+            }
+            this.first[this.size] = a;
+            this.second[this.size] = b;
+            this.size++;
+        }
+    }
+
+    /**
+     * Something done to a range of indexes [from, to)
+     */
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs a RangeAction over [from, to) in pieces of at most pieceSize indexes,
+     * splitting the range in half until the pieces are small enough
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int pieceSize;
+        private final RangeAction action;
+
+        RangeTask(int from, int to, int pieceSize, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.pieceSize = pieceSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.pieceSize) {
+                if (this.from < this.to) {
+                    this.action.run(this.from, this.to);
+                }
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new RangeTask(this.from, middle, this.pieceSize, this.action),
+                        new RangeTask(middle, this.to, this.pieceSize, this.action));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package graph;
+
+/**
+ * WeightedGraph is an immutable graph whose edges are labeled with double
+ * weights, stored without boxing. It is an ImmutableGraph with a double[] of
+ * weights aligned with its edge indexes: every node has the dense int id it has in
+ * that graph, the edges of node id are the edge indexes in [edgeStart(id),
+ * edgeEnd(id)), target(e) is the child id of edge index e and weight(e) is its
+ * weight. The ids and edges are read from the ImmutableGraph itself, so the two
+ * always agree.
+ * A WeightedGraph is made from a Graph with double labels using of(Graph), or
+ * from an ImmutableGraph using ofFrozen(ImmutableGraph).
+ */
+public final class WeightedGraph<T> {
+    private final ImmutableGraph<T, Double> frozen;
+    private final double[] weights;
+
+    // Rep Invariant:
+    // frozen != null and weights != null
+    // weights.length == frozen.totalEdges()
+    // weights[e] == frozen.label(e) for every edge index e
+    //
+    // Abstract Function:
+    // WeightedGraph g represents the graph frozen, with the label of each edge index e
+    // read as the weight weights[e].
+
+    private WeightedGraph(ImmutableGraph<T, Double> frozen, double[] weights) {
+        this.frozen = frozen;
+        this.weights = weights;
+        checkRep();
+    }
+
+    /**
+     * Creates a weighted graph with the same nodes and edges as the given graph,
+     * using each edge label as the edge weight. Later changes to graph are not
+     * seen by the returned graph.
+     * @param graph the graph to copy
+     * @param <T> the type of node
+     * @return a WeightedGraph with the nodes and edges of graph
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static <T> WeightedGraph<T> of(Graph<T, Double> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        return ofFrozen(graph.freeze());
+    }
+
+    /**
+     * Creates a weighted graph with the same nodes and edges as the given immutable
+     * graph, using each edge label as the edge weight. The returned graph shares the
+     * nodes and edges of frozen instead of copying them.
+     * @param frozen the graph to read
+     * @param <T> the type of node
+     * @return a WeightedGraph with the nodes and edges of frozen
+     * @throws IllegalArgumentException if frozen is null
+     */
+    public static <T> WeightedGraph<T> ofFrozen(ImmutableGraph<T, Double> frozen) {
+        if (frozen == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        double[] weights = new double[frozen.totalEdges()];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = frozen.label(e);
+        }
+        return new WeightedGraph<>(frozen, weights);
+    }
+
+    /**
+     * Returns the total number of nodes in the graph
+     * @return the number of nodes in the graph
+     */
+    public int totalNodes() {
+        return this.frozen.totalNodes();
+    }
+
+    /**
+     * Returns the total number of edges in the graph
+     * @return the number of edges in the graph
+     */
+    public int totalEdges() {
+        return this.weights.length;
+    }
+
+    /**
+     * Checks if a given node is inside the graph, see ImmutableGraph#containsNode
+     * @param node node to see if is in the graph
+     * @return true if node is in the graph, false if not in the graph
+     * @throws IllegalArgumentException if node is null
+     */
+    public boolean containsNode(T node) {
+        return this.frozen.containsNode(node);
+    }
+
+    /**
+     * Returns the id of the given node, see ImmutableGraph#idOf
+     * @param node the node to look up
+     * @return the id of node, between 0 and totalNodes() - 1
+     * @throws IllegalArgumentException if node is null or not in the graph
+     */
+    public int idOf(T node) {
+        return this.frozen.idOf(node);
+    }
+
+    /**
+     * Returns the node with the given id, see ImmutableGraph#nodeAt
+     * @param id the id of the node
+     * @return the node with the given id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public T nodeAt(int id) {
+        return this.frozen.nodeAt(id);
+    }
+
+    /**
+     * Returns the index of the first outgoing edge of the given node, see
+     * ImmutableGraph#edgeStart
+     * @param id the id of the parent node
+     * @return the first edge index of node id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public int edgeStart(int id) {
+        return this.frozen.edgeStart(id);
+    }
+
+    /**
+     * Returns the index one past the last outgoing edge of the given node, see
+     * ImmutableGraph#edgeEnd
+     * @param id the id of the parent node
+     * @return the end (exclusive) of the edge indexes of node id
+     * @throws IndexOutOfBoundsException if id is not a valid node id
+     */
+    public int edgeEnd(int id) {
+        return this.frozen.edgeEnd(id);
+    }
+
+    /**
+     * Returns the id of the child node of an edge, see ImmutableGraph#target
+     * @param edge the edge index
+     * @return the id of the node the edge points to
+     * @throws IndexOutOfBoundsException if edge is not a valid edge index
+     */
+    public int target(int edge) {
+        return this.frozen.target(edge);
+    }
+
+    /**
+     * Returns the weight of an edge
+     * @param edge the edge index
+     * @return the weight of the edge
+     * @throws IndexOutOfBoundsException if edge is not a valid edge index
+     */
+    public double weight(int edge) {
+        return this.weights[edge];
+    }
+
+    private void checkRep() {
+        assert (this.frozen != null && this.weights != null) : "graph and weights can't be null";
+        assert (this.weights.length == this.frozen.totalEdges()) : "every edge needs a weight";
+    }
+}
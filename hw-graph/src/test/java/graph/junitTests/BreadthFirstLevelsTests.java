@@ -0,0 +1,99 @@
+package graph.junitTests;
+
+import graph.BreadthFirstLevels;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests BreadthFirstLevels
+ */
+public class BreadthFirstLevelsTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private final List<String> visited = new ArrayList<>();
+    private Graph<String, String> graph1;
+
+    @Before
+    public void buildGraph() {
+        // records the nodes whose children are looked at, to check how far a search went
+        this.graph1 = new Graph<String, String>() {
+            @Override
+            public Set<String> childrenView(String parent) {
+                visited.add(parent);
+                return super.childrenView(parent);
+            }
+        };
+        for (String node : Arrays.asList("a", "b", "c", "d", "e", "lonely")) {
+            this.graph1.addNode(node);
+        }
+        this.graph1.addEdge("a", "b", "label");
+        this.graph1.addEdge("a", "c", "label");
+        this.graph1.addEdge("b", "d", "label");
+        this.graph1.addEdge("c", "d", "label");
+        this.graph1.addEdge("d", "e", "label");
+        this.graph1.addEdge("e", "a", "label");
+    }
+
+    private static Set<String> set(String... nodes) {
+        return new HashSet<>(Arrays.asList(nodes));
+    }
+
+    @Test
+    public void testAllLevels() {
+        assertEquals(4, BreadthFirstLevels.stream(this.graph1, "a").count());
+        BreadthFirstLevels<String> search = new BreadthFirstLevels<>(this.graph1, "a");
+        assertEquals(set("a"), search.next().getNodes());
+        assertEquals(set("b", "c"), search.next().getNodes());
+        BreadthFirstLevels.Level<String> level = search.next();
+        assertEquals(2, level.getDistance());
+        assertEquals(set("d"), level.getNodes());
+        assertEquals(set("e"), search.next().getNodes());
+        assertFalse(search.hasNext());
+    }
+
+    @Test
+    public void testStopsWhenNotPulled() {
+        long count = BreadthFirstLevels.stream(this.graph1, "a").limit(2).count();
+        assertEquals(2, count);
+        // only the start node was expanded to find the second level
+        assertEquals(Arrays.asList("a"), this.visited);
+    }
+
+    @Test
+    public void testLonelyNode() {
+        BreadthFirstLevels<String> search = new BreadthFirstLevels<>(this.graph1, "lonely");
+        assertEquals(0, search.next().getDistance());
+        assertFalse(search.hasNext());
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void testNextPastEnd() {
+        BreadthFirstLevels<String> search = new BreadthFirstLevels<>(this.graph1, "lonely");
+        search.next();
+        search.next();
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testLevelUnmodifiable() {
+        BreadthFirstLevels<String> search = new BreadthFirstLevels<>(this.graph1, "a");
+        search.next();
+        search.next().getNodes().add("e");
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testUnknownStart() {
+        new BreadthFirstLevels<>(this.graph1, "z");
+    }
+}
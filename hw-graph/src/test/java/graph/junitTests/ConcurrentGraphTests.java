@@ -0,0 +1,298 @@
+package graph.junitTests;
+
+import graph.AbstractGraph;
+import graph.BreadthFirstLevels;
+import graph.ConcurrentGraph;
+import graph.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests ConcurrentGraph
+ */
+public class ConcurrentGraphTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private final AbstractGraph<String, String> graph1 = new ConcurrentGraph<>();
+
+    @Test
+    public void testAddEdge() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        this.graph1.addEdge("parent", "child", "label1");
+        this.graph1.addEdge("parent", "child", "label2");
+        assertEquals(new HashSet<>(Arrays.asList("child")), this.graph1.listChildren("parent"));
+        assertEquals(2, this.graph1.totalNumEdges("parent", "child"));
+        assertEquals(new HashSet<>(Arrays.asList("label1", "label2")),
+                this.graph1.getLabel("parent", "child"));
+        assertEquals(2, this.graph1.totalEdges());
+    }
+
+    @Test
+    public void testDuplicateEdge() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        this.graph1.addEdge("parent", "child", "label");
+        try {
+            this.graph1.addEdge("parent", "child", "label");
+            fail("the same edge was added twice");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(1, this.graph1.totalEdges());
+        assertEquals(1, this.graph1.listEdges("parent").size());
+        assertEquals(1, this.graph1.edgesView("parent").size());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testDuplicateNodes() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node1");
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testAddEdgeNoChild() {
+        this.graph1.addNode("node1");
+        this.graph1.addEdge("node1", "node2", "label");
+    }
+
+    @Test
+    public void testRemoval() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node2", "node3", "label2");
+        this.graph1.addEdge("node3", "node2", "label3");
+        assertEquals(new HashSet<>(Arrays.asList("node1", "node3")), this.graph1.listParents("node2"));
+        assertTrue(this.graph1.removeEdge("node1", "node2", "label1"));
+        assertEquals(new HashSet<>(Arrays.asList("node3")), this.graph1.listParents("node2"));
+        this.graph1.removeNode("node3");
+        assertTrue(this.graph1.listParents("node2").isEmpty());
+        assertTrue(this.graph1.listChildren("node2").isEmpty());
+        assertEquals(0, this.graph1.totalEdges());
+    }
+
+    @Test
+    public void testChildrenAndParentsViews() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        this.graph1.addEdge("parent", "child", "label1");
+        assertEquals(new HashSet<>(Arrays.asList("child")), this.graph1.childrenView("parent"));
+        assertEquals(new HashSet<>(Arrays.asList("parent")), this.graph1.parentsView("child"));
+        assertTrue(this.graph1.parentsView("parent").isEmpty());
+    }
+
+    @Test
+    public void testSortedEdges() {
+        AbstractGraph<String, String> graph = new ConcurrentGraph<>(Comparator.naturalOrder(), Comparator.naturalOrder());
+        for (String node : Arrays.asList("c", "a", "b")) {
+            graph.addNode(node);
+        }
+        graph.addEdge("a", "c", "y");
+        graph.addEdge("a", "b", "y");
+        graph.addEdge("a", "c", "x");
+        List<String> edges = new ArrayList<>();
+        for (Graph.Edge<String, String> edge : graph.edgesView("a")) {
+            edges.add(edge.getChild() + " " + edge.getLabel());
+        }
+        assertEquals(Arrays.asList("b y", "c x", "c y"), edges);
+        assertTrue(graph.removeEdge("a", "c", "x"));
+        assertEquals(Arrays.asList("b", "c"), new ArrayList<>(graph.childrenView("a")));
+        assertEquals(Comparator.naturalOrder(), graph.snapshot().nodeOrder());
+        graph.validate();
+    }
+
+    @Test
+    public void testMayReachIsConservative() {
+        this.graph1.addNode("a");
+        this.graph1.addNode("b");
+        assertTrue(this.graph1.mayReach("a", "b"));
+    }
+
+    @Test
+    public void testVersionCountsChanges() {
+        long version = this.graph1.version();
+        this.graph1.addNode("a");
+        this.graph1.addNode("b");
+        this.graph1.addEdge("a", "b", "label");
+        assertEquals(version + 3, this.graph1.version());
+        assertFalse(this.graph1.removeEdge("a", "b", "other"));
+        assertEquals(version + 3, this.graph1.version());
+        this.graph1.removeNode("b");
+        assertTrue(this.graph1.version() > version + 3);
+    }
+
+    @Test
+    public void testSnapshot() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        Graph<String, String> snapshot = this.graph1.snapshot();
+        this.graph1.addEdge("node2", "node1", "label2");
+        assertEquals(1, snapshot.totalEdges());
+        assertEquals(new HashSet<>(Arrays.asList("label1")), snapshot.getLabel("node1", "node2"));
+    }
+
+    @Test
+    public void testFreeze() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label");
+        assertEquals(2, this.graph1.freeze().totalNodes());
+        assertEquals(1, this.graph1.freeze().totalEdges());
+    }
+
+    @Test
+    public void testBreadthFirstSearch() {
+        this.graph1.addNode("a");
+        this.graph1.addNode("b");
+        this.graph1.addNode("c");
+        this.graph1.addEdge("a", "b", "label");
+        this.graph1.addEdge("b", "c", "label");
+        assertEquals(3, BreadthFirstLevels.stream(this.graph1, "a").count());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        int writers = 8;
+        int edgesPerWriter = 2000;
+        for (int i = 0; i < 10; i++) {
+            this.graph1.addNode("node" + i);
+        }
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                for (int e = 0; e < edgesPerWriter; e++) {
+                    this.graph1.addEdge("node" + (e % 10), "node" + ((e + writer) % 10), writer + "-" + e);
+                }
+            }));
+        }
+        // a reader walks the graph the whole time the writers are running
+        Thread reader = new Thread(() -> {
+            try {
+                while (this.graph1.totalEdges() < writers * edgesPerWriter) {
+                    for (String node : this.graph1.nodesView()) {
+                        this.graph1.forEachEdge(node, edge -> assertNotNull(edge.getLabel()));
+                    }
+                }
+            } catch (RuntimeException | AssertionError e) {
+                failed.set(true);
+            }
+        });
+        reader.start();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        reader.join();
+        assertFalse(failed.get());
+        assertEquals(writers * edgesPerWriter, this.graph1.totalEdges());
+        int listed = 0;
+        for (String node : this.graph1.listNodes()) {
+            listed += this.graph1.listEdges(node).size();
+        }
+        assertEquals(writers * edgesPerWriter, listed);
+        this.graph1.validate();
+    }
+
+    @Test
+    public void testRemoveNodeDuringAddEdge() throws InterruptedException {
+        this.graph1.addNode("hub");
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        CyclicBarrier start = new CyclicBarrier(5);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            String parent = "node" + w;
+            this.graph1.addNode(parent);
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int e = 0; !(done.get()); e++) {
+                    try {
+                        this.graph1.addEdge(parent, "hub", "label" + e);
+                    } catch (IllegalArgumentException ex) {
+                        // expected while hub is removed
+                    } catch (RuntimeException ex) {
+                        failed.set(true);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        await(start);
+        // the writers keep adding edges to hub while it is removed and added back
+        for (int i = 0; i < 2000; i++) {
+            this.graph1.removeNode("hub");
+            this.graph1.addNode("hub");
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+        this.graph1.validate();
+    }
+
+    @Test
+    public void testRemoveNodeDuringAddNode() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            AbstractGraph<String, String> graph = new ConcurrentGraph<>();
+            graph.addNode("node");
+            CyclicBarrier start = new CyclicBarrier(2);
+            Thread adder = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        graph.addNode("node");
+                    } catch (IllegalArgumentException e) {
+                        // expected while the node is there
+                    }
+                }
+            });
+            adder.start();
+            await(start);
+            for (int i = 0; i < 100; i++) {
+                try {
+                    graph.removeNode("node");
+                } catch (IllegalArgumentException e) {
+                    // expected while the node is gone
+                }
+            }
+            adder.join();
+            graph.validate();
+            if (graph.containsNode("node")) {
+                assertTrue(graph.listParents("node").isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Waits at barrier until every thread reaches it
+     */
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.GraphBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests GraphBuilder
+ */
+public class GraphBuilderTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Test
+    public void testBuildEmpty() {
+        Graph<String, String> graph = new GraphBuilder<String, String>().build();
+        assertTrue(graph.isEmpty());
+        assertEquals(0, graph.totalEdges());
+    }
+
+    @Test
+    public void testBuildMatchesAddEdge() {
+        Graph<String, String> expected = new Graph<>();
+        expected.addNode("a");
+        expected.addNode("b");
+        expected.addNode("c");
+        expected.addEdge("a", "b", "1");
+        expected.addEdge("a", "b", "2");
+        expected.addEdge("b", "c", "3");
+        expected.addEdge("c", "c", "4");
+
+        Graph<String, String> built = new GraphBuilder<String, String>()
+                .expectedNodes(3)
+                .addNodes(Arrays.asList("a", "b", "c", "a"))
+                .addEdge("a", "b", "1")
+                .addEdges(Stream.of(new GraphBuilder.EdgeSpec<>("a", "b", "2"),
+                        new GraphBuilder.EdgeSpec<>("b", "c", "3"),
+                        new GraphBuilder.EdgeSpec<>("c", "c", "4")))
+                .build();
+
+        assertEquals(expected.listNodes(), built.listNodes());
+        assertEquals(expected.totalEdges(), built.totalEdges());
+        for (String node : expected.listNodes()) {
+            assertEquals(expected.listChildren(node), built.listChildren(node));
+            assertEquals(expected.listParents(node), built.listParents(node));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), built.getLabel("a", "b"));
+        built.validate();
+    }
+
+    @Test
+    public void testNodesAfterEdges() {
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .addEdge("a", "b", "1")
+                .addNode("b")
+                .addNode("a")
+                .build();
+        Set<String> children = graph.listChildren("a");
+        assertEquals(1, children.size());
+        assertTrue(children.contains("b"));
+    }
+
+    @Test
+    public void testDuplicateEdgeKeptOnce() {
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .addNodes(Arrays.asList("a", "b"))
+                .addEdge("a", "b", "1")
+                .addEdge("a", "b", "1")
+                .addEdge("a", "b", "2")
+                .build();
+        assertEquals(2, graph.totalEdges());
+        assertEquals(2, graph.listEdges("a").size());
+        assertEquals(2, graph.edgesView("a").size());
+    }
+
+    @Test
+    public void testBuiltGraphIsMutable() {
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .addNodes(Arrays.asList("a", "b"))
+                .addEdge("a", "b", "1")
+                .build();
+        graph.addNode("c");
+        graph.addEdge("b", "c", "2");
+        assertTrue(graph.removeEdge("a", "b", "1"));
+        assertEquals(1, graph.totalEdges());
+        graph.validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEdgeNodeNeverAdded() {
+        new GraphBuilder<String, String>()
+                .addNode("a")
+                .addEdge("a", "b", "1")
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullNode() {
+        new GraphBuilder<String, String>().addNodes(Arrays.asList("a", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullLabel() {
+        new GraphBuilder<String, String>().addEdge("a", "b", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSizeHint() {
+        new GraphBuilder<String, String>().expectedNodes(-1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuildTwice() {
+        GraphBuilder<String, String> builder = new GraphBuilder<String, String>().addNode("a");
+        builder.build();
+        builder.addNode("b");
+    }
+    @Test
+    public void testBuildSorted() {
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .sortedBy(Comparator.naturalOrder(), Comparator.naturalOrder())
+                .addEdge("a", "c", "y")
+                .addEdge("a", "b", "y")
+                .addEdge("a", "c", "x")
+                .addNodes(Arrays.asList("c", "b", "a"))
+                .build();
+        List<String> edges = new ArrayList<>();
+        graph.forEachEdge("a", edge -> edges.add(edge.getChild() + " " + edge.getLabel()));
+        assertEquals(Arrays.asList("b y", "c x", "c y"), edges);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSortedAfterAdding() {
+        new GraphBuilder<String, String>().addNode("a")
+                .sortedBy(Comparator.naturalOrder(), Comparator.naturalOrder());
+    }
+
+}
@@ -0,0 +1,168 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.GraphCodec;
+import graph.GraphFile;
+import graph.ImmutableGraph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests GraphFile and GraphCodec
+ */
+public class GraphFileTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private Graph<String, String> graph1;
+    private Path file;
+
+    @Before
+    public void buildGraph() throws IOException {
+        this.graph1 = new Graph<>();
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("n\u00f6de3");
+        this.graph1.addNode("lonely");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node1", "node2", "label2");
+        this.graph1.addEdge("node1", "node1", "label1");
+        this.graph1.addEdge("node2", "n\u00f6de3", "l\u00e4bel3");
+        this.file = Files.createTempFile("graph", ".bin");
+    }
+
+    @After
+    public void deleteFile() {
+        // may fail while the file is still mapped on some platforms, which is fine for a temp file
+        this.file.toFile().delete();
+    }
+
+    /**
+     * Returns every edge of graph as "parent child label" strings
+     */
+    private static <E> Set<String> edges(ImmutableGraph<String, E> graph) {
+        Set<String> edges = new HashSet<>();
+        for (int id = 0; id < graph.totalNodes(); id++) {
+            for (int e = graph.edgeStart(id); e < graph.edgeEnd(id); e++) {
+                edges.add(graph.nodeAt(id) + " " + graph.nodeAt(graph.target(e)) + " " + graph.label(e));
+            }
+        }
+        return edges;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ImmutableGraph<String, String> frozen = this.graph1.freeze();
+        GraphFile.write(frozen, this.file, GraphCodec.strings(), GraphCodec.strings());
+        ImmutableGraph<String, String> loaded = GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+        assertEquals(4, loaded.totalNodes());
+        assertEquals(4, loaded.totalEdges());
+        assertTrue(loaded.containsNode("lonely"));
+        assertEquals(edges(frozen), edges(loaded));
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        GraphFile.write(new Graph<String, Double>().freeze(), this.file, GraphCodec.strings(), GraphCodec.doubles());
+        ImmutableGraph<String, Double> loaded = GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.doubles());
+        assertEquals(0, loaded.totalNodes());
+        assertEquals(0, loaded.totalEdges());
+    }
+
+    @Test
+    public void testRoundTripDoubles() throws IOException {
+        Graph<String, Double> graph = new Graph<>();
+        graph.addNode("a");
+        graph.addNode("b");
+        graph.addEdge("a", "b", 1.5);
+        graph.addEdge("b", "a", 1.5);
+        graph.addEdge("b", "b", -0.25);
+        GraphFile.write(graph.freeze(), this.file, GraphCodec.strings(), GraphCodec.doubles());
+        ImmutableGraph<String, Double> loaded = GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.doubles());
+        assertEquals(new HashSet<>(Arrays.asList("a b 1.5", "b a 1.5", "b b -0.25")), edges(loaded));
+    }
+
+    @Test
+    public void testLoadedToGraph() throws IOException {
+        GraphFile.write(this.graph1.freeze(), this.file, GraphCodec.strings(), GraphCodec.strings());
+        Graph<String, String> graph = GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings()).toGraph();
+        assertEquals(this.graph1.listNodes(), graph.listNodes());
+        assertEquals(this.graph1.getLabel("node1", "node2"), graph.getLabel("node1", "node2"));
+        graph.addEdge("lonely", "node1", "label4");
+        assertEquals(5, graph.totalEdges());
+    }
+
+    @Test (expected = IOException.class)
+    public void testLoadNotAGraphFile() throws IOException {
+        Files.write(this.file, "node1,node2".getBytes());
+        GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+    }
+
+    @Test (expected = IOException.class)
+    public void testLoadTruncated() throws IOException {
+        GraphFile.write(this.graph1.freeze(), this.file, GraphCodec.strings(), GraphCodec.strings());
+        byte[] bytes = Files.readAllBytes(this.file);
+        Files.write(this.file, Arrays.copyOf(bytes, bytes.length - 3));
+        GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+    }
+
+    /**
+     * Writes a graph of the nodes "a" and "b" with no edges, then overwrites its bytes
+     * with change. The node table starts at byte 32: length 1 and 'a', then length 1
+     * and 'b'.
+     */
+    private void writeChanged(Consumer<ByteBuffer> change) throws IOException {
+        Graph<String, String> graph = new Graph<>();
+        graph.addNode("a");
+        graph.addNode("b");
+        GraphFile.write(graph.freeze(), this.file, GraphCodec.strings(), GraphCodec.strings());
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(this.file));
+        change.accept(bytes);
+        Files.write(this.file, bytes.array());
+    }
+
+    @Test (expected = IOException.class)
+    public void testLoadNegativeStringLength() throws IOException {
+        writeChanged(bytes -> bytes.putInt(32, -1));
+        GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+    }
+
+    @Test (expected = IOException.class)
+    public void testLoadHugeStringLength() throws IOException {
+        writeChanged(bytes -> bytes.putInt(32, Integer.MAX_VALUE));
+        GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+    }
+
+    @Test (expected = IOException.class)
+    public void testLoadHugeLabelCount() throws IOException {
+        // a valid header for an empty graph, but with room claimed for a huge label table
+        ByteBuffer bytes = ByteBuffer.allocate(24);
+        bytes.putInt(0x43534547).putInt(1).putInt(0).putInt(0).putInt(Integer.MAX_VALUE - 8).putInt(0);
+        Files.write(this.file, bytes.array());
+        GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+    }
+
+    @Test (expected = IOException.class)
+    public void testLoadDuplicateNodes() throws IOException {
+        writeChanged(bytes -> bytes.put(41, bytes.get(36)));
+        GraphFile.load(this.file, GraphCodec.strings(), GraphCodec.strings());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testLoadNullFile() throws IOException {
+        GraphFile.load(null, GraphCodec.strings(), GraphCodec.strings());
+    }
+}
@@ -5,8 +5,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -108,7 +111,185 @@ public class GraphTests {
         assertEquals(expected, children);
     }
 
+    @Test
+    public void testDuplicateEdge() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        this.graph1.addEdge("parent", "child", "label");
+        try {
+            this.graph1.addEdge("parent", "child", "label");
+            fail("the same edge was added twice");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(1, this.graph1.totalEdges());
+        assertEquals(1, this.graph1.totalNumEdges("parent", "child"));
+        assertEquals(1, this.graph1.listEdges("parent").size());
+        assertEquals(1, this.graph1.edgesView("parent").size());
+        this.graph1.validate();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////
+    ////  removal and parents
+    ///////////////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void testListParents() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node3", "label1");
+        this.graph1.addEdge("node2", "node3", "label2");
+        this.graph1.addEdge("node2", "node3", "label3");
+        assertEquals(new HashSet<>(Arrays.asList("node1", "node2")), this.graph1.listParents("node3"));
+        assertTrue(this.graph1.listParents("node1").isEmpty());
+    }
+
+    @Test
+    public void testRemoveEdge() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node1", "node2", "label2");
+        assertTrue(this.graph1.removeEdge("node1", "node2", "label1"));
+        assertFalse(this.graph1.removeEdge("node1", "node2", "label1"));
+        assertEquals(1, this.graph1.totalEdges());
+        assertEquals(new HashSet<>(Arrays.asList("node1")), this.graph1.listParents("node2"));
+        assertTrue(this.graph1.removeEdge("node1", "node2", "label2"));
+        assertTrue(this.graph1.listChildren("node1").isEmpty());
+        assertTrue(this.graph1.listParents("node2").isEmpty());
+        assertEquals(0, this.graph1.totalEdges());
+    }
+
+    @Test
+    public void testRemoveNode() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node2", "node3", "label2");
+        this.graph1.addEdge("node2", "node2", "label3");
+        this.graph1.addEdge("node3", "node1", "label4");
+        this.graph1.removeNode("node2");
+        assertEquals(new HashSet<>(Arrays.asList("node1", "node3")), this.graph1.listNodes());
+        assertTrue(this.graph1.listChildren("node1").isEmpty());
+        assertTrue(this.graph1.listParents("node3").isEmpty());
+        assertEquals(1, this.graph1.totalEdges());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testRemoveUnknownNode() {
+        this.graph1.removeNode("node1");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////
+    ////  snapshots
+    ///////////////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void testSnapshotUnchangedByWrites() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        Graph<String, String> snapshot = this.graph1.snapshot();
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node2", "label2");
+        this.graph1.addEdge("node2", "node3", "label3");
+        this.graph1.removeEdge("node1", "node2", "label1");
+        assertEquals(new HashSet<>(Arrays.asList("node1", "node2")), snapshot.listNodes());
+        assertEquals(new HashSet<>(Arrays.asList("label1")), snapshot.getLabel("node1", "node2"));
+        assertTrue(snapshot.listChildren("node2").isEmpty());
+        assertEquals(1, snapshot.totalEdges());
+        assertEquals(new HashSet<>(Arrays.asList("label2")), this.graph1.getLabel("node1", "node2"));
+        assertEquals(2, this.graph1.totalEdges());
+    }
+
+    @Test
+    public void testSnapshotUnchangedByRemoveAndClear() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node2", "node1", "label2");
+        Graph<String, String> first = this.graph1.snapshot();
+        this.graph1.removeNode("node2");
+        Graph<String, String> second = this.graph1.snapshot();
+        this.graph1.clear();
+        assertEquals(2, first.totalNodes());
+        assertEquals(new HashSet<>(Arrays.asList("node2")), first.listParents("node1"));
+        assertEquals(2, first.totalEdges());
+        assertEquals(new HashSet<>(Arrays.asList("node1")), second.listNodes());
+        assertEquals(0, second.totalEdges());
+        assertTrue(this.graph1.isEmpty());
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testSnapshotReadOnly() {
+        this.graph1.addNode("node1");
+        this.graph1.snapshot().addNode("node2");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////
+    ////  views
+    ///////////////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void testEdgesViewIsLive() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        Set<Graph.Edge<String, String>> view = this.graph1.edgesView("parent");
+        assertTrue(view.isEmpty());
+        this.graph1.addEdge("parent", "child", "label");
+        assertEquals(1, view.size());
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testEdgesViewUnmodifiable() {
+        this.graph1.addNode("parent");
+        this.graph1.edgesView("parent").clear();
+    }
+
+    @Test
+    public void testNodesViewIsLive() {
+        Set<String> view = this.graph1.nodesView();
+        this.graph1.addNode("node1");
+        assertEquals(new HashSet<>(Arrays.asList("node1")), view);
+    }
 
+    @Test
+    public void testChildrenAndParentsViews() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        Set<String> children = this.graph1.childrenView("parent");
+        Set<String> parents = this.graph1.parentsView("child");
+        this.graph1.addEdge("parent", "child", "label1");
+        this.graph1.addEdge("parent", "child", "label2");
+        assertEquals(new HashSet<>(Arrays.asList("child")), children);
+        assertEquals(new HashSet<>(Arrays.asList("parent")), parents);
+        assertTrue(this.graph1.parentsView("parent").isEmpty());
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testParentsViewUnmodifiable() {
+        this.graph1.addNode("child");
+        this.graph1.parentsView("child").add("parent");
+    }
+
+    @Test
+    public void testForEachEdge() {
+        this.graph1.addNode("parent");
+        this.graph1.addNode("child");
+        this.graph1.addEdge("parent", "child", "label1");
+        this.graph1.addEdge("parent", "parent", "label2");
+        Set<String> labels = new HashSet<>();
+        this.graph1.forEachEdge("parent", edge -> labels.add(edge.getLabel()));
+        assertEquals(new HashSet<>(Arrays.asList("label1", "label2")), labels);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testForEachEdgeUnknownNode() {
+        this.graph1.forEachEdge("node1", edge -> { });
+    }
 
     ///////////////////////////////////////////////////////////////////////////////////////
     ////  totals
@@ -144,6 +325,239 @@ public class GraphTests {
         assertEquals(2, this.graph1.totalNumEdges("node1", "node2"));
     }
 
+    @Test
+    public void testTotalNumEdgesNoEdges() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node1", "label1");
+        assertEquals(0, this.graph1.totalNumEdges("node1", "node2"));
+        assertEquals(0, this.graph1.totalNumEdges("node2", "node1"));
+    }
+
+    @Test
+    public void testGetLabel() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node1", "node2", "label2");
+        this.graph1.addEdge("node1", "node3", "label3");
+        assertEquals(new HashSet<>(Arrays.asList("label1", "label2")),
+                this.graph1.getLabel("node1", "node2"));
+        assertTrue(this.graph1.getLabel("node2", "node1").isEmpty());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testGetLabelUnknownNode() {
+        this.graph1.addNode("node1");
+        this.graph1.getLabel("node1", "node2");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////
+    ////  shared labels and edges
+    ///////////////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void testSharedLabel() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node2", "comic");
+        this.graph1.addEdge("node2", "node3", "comic");
+        this.graph1.addEdge("node3", "node1", "comic");
+        assertTrue(this.graph1.removeEdge("node2", "node3", "comic"));
+        assertEquals(new HashSet<>(Arrays.asList("comic")), this.graph1.getLabel("node1", "node2"));
+        assertEquals(new HashSet<>(Arrays.asList("comic")), this.graph1.getLabel("node3", "node1"));
+        assertEquals(2, this.graph1.totalEdges());
+    }
+
+    @Test
+    public void testRemoveEdgeUnknownLabel() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        assertFalse(this.graph1.removeEdge("node1", "node2", "label2"));
+        assertEquals(1, this.graph1.totalEdges());
+    }
+
+    @Test
+    public void testEdgesAreValues() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        Graph.Edge<String, String> edge = new Graph.Edge<>("node1", "node2", "label1");
+        assertEquals(edge, this.graph1.edgesView("node1").iterator().next());
+        assertEquals(edge.hashCode(), this.graph1.edgesView("node1").iterator().next().hashCode());
+        assertTrue(this.graph1.listEdges("node1").contains(edge));
+        assertNotEquals(edge, new Graph.Edge<>("node1", "node2", "label2"));
+    }
+
+    @Test
+    public void testSnapshotKeepsLabelsAfterClear() {
+        this.graph1.addNode("node1");
+        this.graph1.addEdge("node1", "node1", "label1");
+        Graph<String, String> snapshot = this.graph1.snapshot();
+        this.graph1.clear();
+        this.graph1.addNode("node1");
+        this.graph1.addEdge("node1", "node1", "label2");
+        assertEquals(new HashSet<>(Arrays.asList("label1")), snapshot.getLabel("node1", "node1"));
+        assertEquals(new HashSet<>(Arrays.asList("label2")), this.graph1.getLabel("node1", "node1"));
+    }
+
+    @Test
+    public void testManyLabels() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        Graph<String, String> snapshot = this.graph1.snapshot();
+        for (int i = 0; i < 100; i++) {
+            this.graph1.addEdge("node1", "node2", "label" + i);
+        }
+        assertEquals(100, this.graph1.getLabel("node1", "node2").size());
+        assertEquals(0, snapshot.totalEdges());
+        this.graph1.validate();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////
+    ////  sorted graphs
+    ///////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the edges of node in iteration order, as "child label" strings
+     */
+    private static List<String> edgeOrder(Graph<String, String> graph, String node) {
+        List<String> edges = new ArrayList<>();
+        for (Graph.Edge<String, String> edge : graph.edgesView(node)) {
+            edges.add(edge.getChild() + " " + edge.getLabel());
+        }
+        return edges;
+    }
+
+    /**
+     * Returns a sorted graph with edges from "a" added out of order
+     */
+    private static Graph<String, String> sortedGraph() {
+        Graph<String, String> graph = new Graph<>(Comparator.naturalOrder(), Comparator.naturalOrder());
+        for (String node : Arrays.asList("d", "a", "c", "b")) {
+            graph.addNode(node);
+        }
+        graph.addEdge("a", "c", "y");
+        graph.addEdge("a", "b", "z");
+        graph.addEdge("a", "c", "x");
+        graph.addEdge("a", "d", "x");
+        graph.addEdge("a", "c", "z");
+        return graph;
+    }
+
+    @Test
+    public void testSortedEdges() {
+        Graph<String, String> graph = sortedGraph();
+        assertEquals(Arrays.asList("b z", "c x", "c y", "c z", "d x"), edgeOrder(graph, "a"));
+        assertEquals(Arrays.asList("b", "c", "d"), new ArrayList<>(graph.childrenView("a")));
+        assertEquals(Comparator.naturalOrder(), graph.nodeOrder());
+        graph.validate();
+    }
+
+    @Test
+    public void testSortedAfterRemoval() {
+        Graph<String, String> graph = sortedGraph();
+        assertTrue(graph.removeEdge("a", "c", "y"));
+        graph.removeNode("b");
+        assertEquals(Arrays.asList("c x", "c z", "d x"), edgeOrder(graph, "a"));
+        graph.validate();
+    }
+
+    @Test
+    public void testSortedAfterSnapshot() {
+        Graph<String, String> graph = sortedGraph();
+        Graph<String, String> snapshot = graph.snapshot();
+        graph.addEdge("a", "a", "w");
+        graph.addEdge("a", "c", "w");
+        assertEquals(Arrays.asList("a w", "b z", "c w", "c x", "c y", "c z", "d x"), edgeOrder(graph, "a"));
+        assertEquals(Arrays.asList("b z", "c x", "c y", "c z", "d x"), edgeOrder(snapshot, "a"));
+        assertNotNull(snapshot.labelOrder());
+        graph.validate();
+    }
+
+    @Test
+    public void testSortedReverseOrder() {
+        Graph<String, String> graph = new Graph<>(Comparator.reverseOrder(), Comparator.reverseOrder());
+        graph.addNode("a");
+        graph.addNode("b");
+        graph.addEdge("a", "a", "x");
+        graph.addEdge("a", "b", "x");
+        graph.addEdge("a", "b", "y");
+        assertEquals(Arrays.asList("b y", "b x", "a x"), edgeOrder(graph, "a"));
+    }
+
+    @Test
+    public void testUnsortedHasNoOrder() {
+        assertNull(this.graph1.nodeOrder());
+        assertNull(this.graph1.labelOrder());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testSortedNullOrder() {
+        new Graph<String, String>(Comparator.naturalOrder(), null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////
+    ////  reachability
+    ///////////////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void testMayReachComponents() {
+        for (String node : Arrays.asList("a", "b", "c", "d")) {
+            this.graph1.addNode(node);
+        }
+        this.graph1.addEdge("a", "b", "label");
+        this.graph1.addEdge("c", "d", "label");
+        assertTrue(this.graph1.mayReach("a", "b"));
+        assertTrue(this.graph1.mayReach("a", "a"));
+        assertFalse(this.graph1.mayReach("a", "c"));
+        // kept up to date as nodes and edges are added
+        this.graph1.addNode("e");
+        assertFalse(this.graph1.mayReach("e", "a"));
+        this.graph1.addEdge("b", "c", "label");
+        this.graph1.addEdge("e", "e", "label");
+        assertTrue(this.graph1.mayReach("d", "a"));
+        assertFalse(this.graph1.mayReach("d", "e"));
+    }
+
+    @Test
+    public void testMayReachAfterRemoval() {
+        for (String node : Arrays.asList("a", "b", "c")) {
+            this.graph1.addNode(node);
+        }
+        this.graph1.addEdge("a", "b", "label1");
+        this.graph1.addEdge("a", "b", "label2");
+        this.graph1.addEdge("b", "c", "label");
+        assertTrue(this.graph1.mayReach("a", "c"));
+        this.graph1.removeEdge("a", "b", "label1");
+        assertTrue(this.graph1.mayReach("a", "c"));
+        this.graph1.removeEdge("a", "b", "label2");
+        assertFalse(this.graph1.mayReach("a", "c"));
+        this.graph1.addEdge("c", "a", "label");
+        this.graph1.removeNode("b");
+        assertTrue(this.graph1.mayReach("a", "c"));
+    }
+
+    @Test
+    public void testMayReachSnapshot() {
+        this.graph1.addNode("a");
+        this.graph1.addNode("b");
+        assertFalse(this.graph1.mayReach("a", "b"));
+        Graph<String, String> snapshot = this.graph1.snapshot();
+        this.graph1.addEdge("a", "b", "label");
+        assertTrue(this.graph1.mayReach("a", "b"));
+        assertFalse(snapshot.mayReach("a", "b"));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testMayReachUnknownNode() {
+        this.graph1.addNode("a");
+        this.graph1.mayReach("a", "b");
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////
     ////  clear and empty
     ///////////////////////////////////////////////////////////////////////////////////////
@@ -160,6 +574,42 @@ public class GraphTests {
         assertTrue(this.graph1.isEmpty());
     }
 
+    @Test
+    public void testValidate() {
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node2", "node2", "label2");
+        this.graph1.validate();
+        this.graph1.removeNode("node2");
+        this.graph1.validate();
+    }
+
+    @Test
+    public void testVersionCountsChanges() {
+        long version = this.graph1.version();
+        this.graph1.addNode("node1");
+        assertTrue(this.graph1.version() > version);
+        version = this.graph1.version();
+        this.graph1.addEdge("node1", "node1", "label1");
+        assertTrue(this.graph1.version() > version);
+        version = this.graph1.version();
+        // reads and removals that remove nothing are not changes
+        this.graph1.listEdges("node1");
+        assertFalse(this.graph1.removeEdge("node1", "node1", "label2"));
+        assertEquals(version, this.graph1.version());
+        Graph<String, String> snapshot = this.graph1.snapshot();
+        long snapshotVersion = snapshot.version();
+        // a snapshot keeps the version the graph had when it was taken
+        assertEquals(version, snapshotVersion);
+        this.graph1.removeEdge("node1", "node1", "label1");
+        assertTrue(this.graph1.version() > version);
+        version = this.graph1.version();
+        this.graph1.clear();
+        assertTrue(this.graph1.version() > version);
+        assertEquals(snapshotVersion, snapshot.version());
+    }
+
     @Test
     public void testIsEmpty() {
         this.graph1.addNode("node1");
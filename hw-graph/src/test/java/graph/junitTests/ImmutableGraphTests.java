@@ -0,0 +1,96 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.ImmutableGraph;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests ImmutableGraph and Graph.freeze
+ */
+public class ImmutableGraphTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private Graph<String, String> graph1;
+
+    @Before
+    public void buildGraph() {
+        this.graph1 = new Graph<>();
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addNode("node3");
+        this.graph1.addEdge("node1", "node2", "label1");
+        this.graph1.addEdge("node1", "node2", "label2");
+        this.graph1.addEdge("node1", "node1", "self");
+        this.graph1.addEdge("node2", "node3", "label3");
+    }
+
+    @Test
+    public void testFreezeEmpty() {
+        ImmutableGraph<String, String> frozen = new Graph<String, String>().freeze();
+        assertEquals(0, frozen.totalNodes());
+        assertEquals(0, frozen.totalEdges());
+    }
+
+    @Test
+    public void testFreezeTotals() {
+        ImmutableGraph<String, String> frozen = this.graph1.freeze();
+        assertEquals(3, frozen.totalNodes());
+        assertEquals(4, frozen.totalEdges());
+        assertTrue(frozen.containsNode("node3"));
+        assertFalse(frozen.containsNode("node4"));
+    }
+
+    @Test
+    public void testNodeIds() {
+        ImmutableGraph<String, String> frozen = this.graph1.freeze();
+        for (String node : this.graph1.listNodes()) {
+            assertEquals(node, frozen.nodeAt(frozen.idOf(node)));
+        }
+    }
+
+    @Test
+    public void testEdgesMatchGraph() {
+        ImmutableGraph<String, String> frozen = this.graph1.freeze();
+        for (String node : this.graph1.listNodes()) {
+            int id = frozen.idOf(node);
+            Set<String> expected = new HashSet<>();
+            for (Graph.Edge<String, String> edge : this.graph1.listEdges(node)) {
+                expected.add(edge.getChild() + "(" + edge.getLabel() + ")");
+            }
+            Set<String> actual = new HashSet<>();
+            for (int e = frozen.edgeStart(id); e < frozen.edgeEnd(id); e++) {
+                actual.add(frozen.nodeAt(frozen.target(e)) + "(" + frozen.label(e) + ")");
+            }
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), frozen.outDegree(id));
+        }
+    }
+
+    @Test
+    public void testFreezeIsSnapshot() {
+        ImmutableGraph<String, String> frozen = this.graph1.freeze();
+        this.graph1.addNode("node4");
+        this.graph1.addEdge("node3", "node4", "label4");
+        assertEquals(3, frozen.totalNodes());
+        assertEquals(4, frozen.totalEdges());
+        assertEquals(0, frozen.outDegree(frozen.idOf("node3")));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testIdOfUnknownNode() {
+        this.graph1.freeze().idOf("node4");
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testIdOfNull() {
+        this.graph1.freeze().idOf(null);
+    }
+}
@@ -0,0 +1,178 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.ParallelGraphBuilder;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests ParallelGraphBuilder
+ */
+public class ParallelGraphBuilderTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void stopPool() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Returns groups of nodes where every pair of nodes in a group is connected both
+     * ways, labeled with the name of the group, like the comics of the marvel dataset
+     */
+    private static List<List<String>> cliques(int count) {
+        List<List<String>> groups = new ArrayList<>();
+        for (int g = 0; g < count; g++) {
+            List<String> group = new ArrayList<>();
+            group.add("group" + g);
+            for (int n = 0; n < g % 7 + 1; n++) {
+                group.add("node" + ((g * 31 + n * 17) % 50));
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /**
+     * Adds the edges of a group of cliques one at a time
+     */
+    private static Graph<String, String> serial(List<List<String>> groups) {
+        Graph<String, String> graph = new Graph<>();
+        for (List<String> group : groups) {
+            for (String node : group.subList(1, group.size())) {
+                if (!(graph.containsNode(node))) {
+                    graph.addNode(node);
+                }
+            }
+            for (String parent : group.subList(1, group.size())) {
+                for (String child : group.subList(1, group.size())) {
+                    if (!(parent.equals(child))) {
+                        graph.addEdge(parent, child, group.get(0));
+                    }
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Builds the same graph as serial with a ParallelGraphBuilder on pool
+     */
+    private static Graph<String, String> parallel(ForkJoinPool pool, List<List<String>> groups) {
+        return new ParallelGraphBuilder<String, String>(pool)
+                .addAll(groups, (group, shard) -> {
+                    for (String parent : group.subList(1, group.size())) {
+                        shard.addNode(parent);
+                        for (String child : group.subList(1, group.size())) {
+                            if (!(parent.equals(child))) {
+                                shard.addEdge(parent, child, group.get(0));
+                            }
+                        }
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void testBuildEmpty() {
+        Graph<String, String> graph = new ParallelGraphBuilder<String, String>(this.pool).build();
+        assertTrue(graph.isEmpty());
+    }
+
+    @Test
+    public void testMatchesSerialBuild() {
+        List<List<String>> groups = cliques(500);
+        Graph<String, String> expected = serial(groups);
+        Graph<String, String> built = parallel(this.pool, groups);
+        built.validate();
+        assertEquals(expected.listNodes(), built.listNodes());
+        assertEquals(expected.totalEdges(), built.totalEdges());
+        for (String parent : expected.listNodes()) {
+            assertEquals(expected.listChildren(parent), built.listChildren(parent));
+            assertEquals(expected.listParents(parent), built.listParents(parent));
+            for (String child : expected.listChildren(parent)) {
+                assertEquals(expected.getLabel(parent, child), built.getLabel(parent, child));
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateEdgeKeptOnce() {
+        // every group adds the same edge, so several shards may hold a copy of it
+        Graph<String, String> built = new ParallelGraphBuilder<String, String>(this.pool)
+                .addAll(Arrays.asList("x", "y", "z", "w"), (group, shard) -> {
+                    shard.addNode("a");
+                    shard.addNode("b");
+                    shard.addEdge("a", "b", "label");
+                    shard.addEdge("a", "b", "label");
+                })
+                .build();
+        built.validate();
+        assertEquals(1, built.totalEdges());
+        assertEquals(1, built.listEdges("a").size());
+    }
+
+    @Test
+    public void testOneShardPerThread() {
+        // 1000 groups are split into many more pieces than the pool has workers
+        Set<Object> shards = Collections.newSetFromMap(new IdentityHashMap<>());
+        new ParallelGraphBuilder<String, String>(this.pool)
+                .addAll(cliques(1000), (group, shard) -> {
+                    synchronized (shards) {
+                        shards.add(shard);
+                    }
+                    shard.addNode(group.get(0));
+                })
+                .build();
+        // the workers of the pool, and the caller if it ran a piece itself
+        assertTrue(shards.size() <= this.pool.getParallelism() + 1);
+    }
+
+    @Test
+    public void testBuiltGraphIsMutable() {
+        Graph<String, String> built = parallel(this.pool, cliques(20));
+        built.addNode("new");
+        built.addEdge("new", "node0", "group0");
+        built.addEdge("new", "node0", "another");
+        assertEquals(new HashSet<>(Arrays.asList("another", "group0")), built.getLabel("new", "node0"));
+        built.validate();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testEdgeNodeNeverAdded() {
+        new ParallelGraphBuilder<String, String>(this.pool)
+                .addAll(Arrays.asList("a"), (node, shard) -> {
+                    shard.addNode(node);
+                    shard.addEdge(node, "b", "label");
+                })
+                .build();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullLabel() {
+        new ParallelGraphBuilder<String, String>(this.pool)
+                .addAll(Arrays.asList("a"), (node, shard) -> shard.addEdge(node, node, null));
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void testBuildTwice() {
+        ParallelGraphBuilder<String, String> builder = new ParallelGraphBuilder<>(this.pool);
+        builder.build();
+        builder.build();
+    }
+}
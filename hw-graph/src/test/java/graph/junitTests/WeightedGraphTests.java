@@ -0,0 +1,73 @@
+package graph.junitTests;
+
+import graph.Graph;
+import graph.ImmutableGraph;
+import graph.WeightedGraph;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests WeightedGraph
+ */
+public class WeightedGraphTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private Graph<String, Double> graph1;
+
+    @Before
+    public void buildGraph() {
+        this.graph1 = new Graph<>();
+        this.graph1.addNode("node1");
+        this.graph1.addNode("node2");
+        this.graph1.addEdge("node1", "node2", 1.5);
+        this.graph1.addEdge("node1", "node2", 2.5);
+        this.graph1.addEdge("node2", "node2", 0.0);
+    }
+
+    @Test
+    public void testTotals() {
+        WeightedGraph<String> weighted = WeightedGraph.of(this.graph1);
+        assertEquals(2, weighted.totalNodes());
+        assertEquals(3, weighted.totalEdges());
+    }
+
+    @Test
+    public void testWeights() {
+        WeightedGraph<String> weighted = WeightedGraph.of(this.graph1);
+        int id = weighted.idOf("node1");
+        Set<Double> weights = new HashSet<>();
+        for (int e = weighted.edgeStart(id); e < weighted.edgeEnd(id); e++) {
+            assertEquals("node2", weighted.nodeAt(weighted.target(e)));
+            weights.add(weighted.weight(e));
+        }
+        assertEquals(Set.of(1.5, 2.5), weights);
+    }
+
+    @Test
+    public void testMatchesFrozenGraph() {
+        ImmutableGraph<String, Double> frozen = this.graph1.freeze();
+        WeightedGraph<String> weighted = WeightedGraph.ofFrozen(frozen);
+        for (int id = 0; id < frozen.totalNodes(); id++) {
+            assertEquals(frozen.nodeAt(id), weighted.nodeAt(id));
+            assertEquals(id, weighted.idOf(frozen.nodeAt(id)));
+            assertEquals(frozen.edgeStart(id), weighted.edgeStart(id));
+            assertEquals(frozen.edgeEnd(id), weighted.edgeEnd(id));
+        }
+        for (int e = 0; e < frozen.totalEdges(); e++) {
+            assertEquals(frozen.target(e), weighted.target(e));
+            assertEquals(frozen.label(e), weighted.weight(e), 0.0);
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        WeightedGraph.of(null);
+    }
+}
@@ -0,0 +1,271 @@
+package marvel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * ComicGraph is an immutable bipartite form of the Marvel data: characters on one
+ * side, comics on the other, and one link between a character and each comic the
+ * character appears in. The character graph built by MarvelPaths.graphCreator has an
+ * edge between every two characters of a comic, which is quadratic in the size of the
+ * cast; a ComicGraph stores each appearance once instead, in both directions.
+ *
+ * Characters and comics are given dense int ids in the order of their names, so
+ * comparing ids compares names. The comics of character id are the appearance indexes
+ * in [comicsStart(id), comicsEnd(id)), with comicOf(a) the comic id of appearance a,
+ * and the cast of comic id is the indexes in [castStart(id), castEnd(id)), with
+ * castMember(m) the character id of index m. Both lists are in id order.
+ */
+public final class ComicGraph {
+    private final String[] characters;
+    private final String[] comics;
+    private final int[] comicOffsets;
+    private final int[] comicIds;
+    private final int[] castOffsets;
+    private final int[] castIds;
+
+    // Rep Invariant:
+    // characters, comics, comicOffsets, comicIds, castOffsets and castIds != null
+    // characters and comics are strictly increasing, with no null element
+    // comicOffsets.length == characters.length + 1, castOffsets.length == comics.length + 1
+    // both offset arrays start at 0, are non-decreasing, and end at
+    // comicIds.length == castIds.length
+    // each comicIds range is strictly increasing comic ids, each castIds range is
+    // strictly increasing character ids
+    // comic c is in the comicIds range of character h exactly when h is in the castIds
+    // range of comic c
+    //
+    // Abstract Function:
+    // ComicGraph g represents the characters named in characters, the comics named in
+    // comics, and the appearances: character characters[h] appears in comic comics[c]
+    // exactly when comicIds[a] == c for some comicOffsets[h] <= a < comicOffsets[h + 1].
+    // castOffsets and castIds hold the same appearances grouped by comic.
+
+    /**
+     * Creates a graph of the given comics
+     * @param comics the characters of each comic, as returned by MarvelParser.parseData
+     * @spec.effects constructs a graph where each character of comics.get(c) appears in c
+     * @throws IllegalArgumentException if comics is null or has a null comic or character
+     */
+    public ComicGraph(Map<String, List<String>> comics) {
+        if (comics == null) {
+            throw new IllegalArgumentException("Comics cannot be null");
+        }
+        TreeSet<String> characterNames = new TreeSet<>();
+        for (Map.Entry<String, List<String>> comic : comics.entrySet()) {
+            if (comic.getKey() == null || comic.getValue() == null || comic.getValue().contains(null)) {
+                throw new IllegalArgumentException("Comics and characters cannot be null");
+            }
+            characterNames.addAll(comic.getValue());
+        }
+        this.characters = characterNames.toArray(new String[0]);
+        this.comics = comics.keySet().toArray(new String[0]);
+        Arrays.sort(this.comics);
+
+        // the cast of each comic, by character id, without repeats
+        List<int[]> casts = new ArrayList<>();
+        int[] appearanceCount = new int[this.characters.length];
+        int total = 0;
+        for (String comic : this.comics) {
+            int[] cast = comics.get(comic).stream().mapToInt(this::characterId).sorted().distinct().toArray();
+            for (int character : cast) {
+                appearanceCount[character]++;
+            }
+            casts.add(cast);
+            total += cast.length;
+        }
+        this.castOffsets = new int[this.comics.length + 1];
+        this.castIds = new int[total];
+        this.comicOffsets = new int[this.characters.length + 1];
+        this.comicIds = new int[total];
+        for (int character = 0; character < this.characters.length; character++) {
+            this.comicOffsets[character + 1] = this.comicOffsets[character] + appearanceCount[character];
+        }
+        // filling by comic in id order keeps the comics of every character in id order
+        int[] filled = Arrays.copyOf(this.comicOffsets, this.characters.length);
+        for (int comic = 0; comic < this.comics.length; comic++) {
+            int[] cast = casts.get(comic);
+            System.arraycopy(cast, 0, this.castIds, this.castOffsets[comic], cast.length);
+            this.castOffsets[comic + 1] = this.castOffsets[comic] + cast.length;
+            for (int character : cast) {
+                this.comicIds[filled[character]++] = comic;
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Builds a graph from a file of the data folder, like MarvelPaths.graphCreator
+     * @param fileName the file to read, in the format MarvelParser.parseData reads
+     * @return a new graph of the characters and comics of the file
+     * @throws IllegalArgumentException if fileName is null or the file can't be read
+     */
+    public static ComicGraph fromFile(String fileName) {
+        if (fileName == null) {
+            throw new IllegalArgumentException("File name cannot be null");
+        }
+        return new ComicGraph(MarvelParser.parseData(fileName));
+    }
+
+    /**
+     * Returns the number of characters in the graph
+     * @return the number of characters
+     */
+    public int totalCharacters() {
+        return this.characters.length;
+    }
+
+    /**
+     * Returns the number of comics in the graph
+     * @return the number of comics
+     */
+    public int totalComics() {
+        return this.comics.length;
+    }
+
+    /**
+     * Returns the number of appearances of characters in comics
+     * @return the number of distinct character and comic pairs
+     */
+    public int totalAppearances() {
+        return this.castIds.length;
+    }
+
+    /**
+     * Returns true if a character is in the graph
+     * @param character the name of the character
+     * @return true if character appears in a comic of the graph
+     * @throws IllegalArgumentException if character is null
+     */
+    public boolean containsCharacter(String character) {
+        if (character == null) {
+            throw new IllegalArgumentException("Character cannot be null");
+        }
+        return Arrays.binarySearch(this.characters, character) >= 0;
+    }
+
+    /**
+     * Returns the id of a character
+     * @param character the name of the character
+     * @return the id of character
+     * @throws IllegalArgumentException if character is null or not in the graph
+     */
+    public int characterId(String character) {
+        if (character == null) {
+            throw new IllegalArgumentException("Character cannot be null");
+        }
+        int id = Arrays.binarySearch(this.characters, character);
+        if (id < 0) {
+            throw new IllegalArgumentException("Character not found in graph: " + character);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the name of the character with the given id
+     * @param id the id of the character
+     * @return the name of character id
+     * @throws IndexOutOfBoundsException if id is not a valid character id
+     */
+    public String characterAt(int id) {
+        return this.characters[id];
+    }
+
+    /**
+     * Returns the name of the comic with the given id
+     * @param id the id of the comic
+     * @return the name of comic id
+     * @throws IndexOutOfBoundsException if id is not a valid comic id
+     */
+    public String comicAt(int id) {
+        return this.comics[id];
+    }
+
+    /**
+     * Returns the first appearance index of a character
+     * @param id the id of the character
+     * @return the index of the first comic of character id
+     * @throws IndexOutOfBoundsException if id is not a valid character id
+     */
+    public int comicsStart(int id) {
+        checkCharacter(id);
+        return this.comicOffsets[id];
+    }
+
+    /**
+     * Returns the appearance index just past the last one of a character
+     * @param id the id of the character
+     * @return one past the index of the last comic of character id
+     * @throws IndexOutOfBoundsException if id is not a valid character id
+     */
+    public int comicsEnd(int id) {
+        checkCharacter(id);
+        return this.comicOffsets[id + 1];
+    }
+
+    /**
+     * Returns the comic of an appearance of a character
+     * @param appearance an index from a comicsStart to comicsEnd range
+     * @return the id of the comic
+     * @throws IndexOutOfBoundsException if appearance is not a valid index
+     */
+    public int comicOf(int appearance) {
+        return this.comicIds[appearance];
+    }
+
+    /**
+     * Returns the first cast index of a comic
+     * @param id the id of the comic
+     * @return the index of the first character of comic id
+     * @throws IndexOutOfBoundsException if id is not a valid comic id
+     */
+    public int castStart(int id) {
+        checkComic(id);
+        return this.castOffsets[id];
+    }
+
+    /**
+     * Returns the cast index just past the last one of a comic
+     * @param id the id of the comic
+     * @return one past the index of the last character of comic id
+     * @throws IndexOutOfBoundsException if id is not a valid comic id
+     */
+    public int castEnd(int id) {
+        checkComic(id);
+        return this.castOffsets[id + 1];
+    }
+
+    /**
+     * Returns the character of a cast index of a comic
+     * @param index an index from a castStart to castEnd range
+     * @return the id of the character
+     * @throws IndexOutOfBoundsException if index is not a valid index
+     */
+    public int castMember(int index) {
+        return this.castIds[index];
+    }
+
+    private void checkCharacter(int id) {
+        if (id < 0 || id >= this.characters.length) {
+            throw new IndexOutOfBoundsException("Invalid character id: " + id);
+        }
+    }
+
+    private void checkComic(int id) {
+        if (id < 0 || id >= this.comics.length) {
+            throw new IndexOutOfBoundsException("Invalid comic id: " + id);
+        }
+    }
+
+    private void checkRep() {
+        assert (this.characters != null && this.comics != null) : "name tables can't be null";
+        assert (this.comicOffsets.length == this.characters.length + 1) : "one offset per character plus the end";
+        assert (this.castOffsets.length == this.comics.length + 1) : "one offset per comic plus the end";
+        assert (this.comicIds.length == this.castIds.length) : "every appearance is stored both ways";
+        assert (this.comicOffsets[this.characters.length] == this.comicIds.length) : "offsets must cover every appearance";
+        assert (this.castOffsets[this.comics.length] == this.castIds.length) : "offsets must cover every appearance";
+    }
+}
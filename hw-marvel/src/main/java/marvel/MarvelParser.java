@@ -11,15 +11,23 @@
 
 package marvel;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
 
 /**
  * Parser utility to load the Marvel Comics dataset.
  */
 public class MarvelParser {
 
+    // size of each read from the data file
+    private static final int BUFFER_BYTES = 64 * 1024;
+
     /**
      * Reads the Marvel Universe dataset. Each line of the input file contains a character
      * name and a comic book the character appeared in, separated by a comma character
@@ -29,38 +37,118 @@ public class MarvelParser {
      * @return comics Map of the comic books
      */
     public static Map<String, List<String>> parseData(String filename) {
-        List<String> lines = readLines(filename);
+        return parseData(filename, (comic, characters) -> { });
+    }
 
+    /**
+     * Reads the Marvel Universe dataset like parseData(String), and calls appearance
+     * each time a character is found in a comic it was not already found in, so a graph
+     * can be built while the file is read. appearance is given the comic and the
+     * characters found in it so far, in file order, ending with the new character. The
+     * list belongs to the parser and must not be modified or kept.
+     *
+     * @param filename The file that will be read.
+     * @param appearance called once for every distinct character and comic pair
+     * @spec.requires filename is a valid file in the resources/data folder.
+     * @return comics Map of the comic books
+     * @throws IllegalArgumentException if appearance is null, the file doesn't exist or
+     *                                  can't be read, or a line has no comma
+     */
+    public static Map<String, List<String>> parseData(String filename,
+                                                      BiConsumer<String, List<String>> appearance) {
+        if (appearance == null) {
+            throw new IllegalArgumentException("Appearance callback cannot be null");
+        }
         Map<String, List<String>> comics = new HashMap<>();
-        for (String line : lines) {
-            String[] split = line.split(",");
-            String character = split[0];
-            String comic = split[1];
-
-            // add a character to list of characters for comic
-            // create new arraylist if not already present
-            if (!(comics.containsKey(comic))){
-                comics.put(comic, new ArrayList<>());
+        // the characters of each comic again, so duplicates are found without a list scan
+        Map<String, Set<String>> found = new HashMap<>();
+        try (ReadableByteChannel channel = Channels.newChannel(openData(filename))) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            byte[] bytes = buffer.array();
+            // the start of the line being read, and the end of the bytes read so far
+            int start = 0;
+            int end = 0;
+            // the comic of the last line, reused while lines keep naming the same comic
+            byte[] lastComic = new byte[0];
+            String comic = "";
+            boolean eof = false;
+            while (!(eof && start == end)) {
+                int newline = indexOf(bytes, (byte) '\n', start, end);
+                if (newline < 0 && !(eof)) {
+                    // move the partial line to the front, growing the buffer if it is full
+                    if (start == 0 && end == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                        buffer = ByteBuffer.wrap(bytes);
+                    } else {
+                        System.arraycopy(bytes, start, bytes, 0, end - start);
+                    }
+                    end -= start;
+                    start = 0;
+                    buffer.limit(bytes.length).position(end);
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        end += read;
+                    }
+                    continue;
+                }
+                int lineEnd = newline < 0 ? end : newline;
+                int next = newline < 0 ? end : newline + 1;
+                if (lineEnd > start && bytes[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > start) {
+                    int comma = indexOf(bytes, (byte) ',', start, lineEnd);
+                    if (comma < 0) {
+                        throw new IllegalArgumentException("Malformed line in " + filename + ": "
+                                + new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8));
+                    }
+                    // like the old split(","), anything after a second comma is ignored
+                    int comicEnd = indexOf(bytes, (byte) ',', comma + 1, lineEnd);
+                    if (comicEnd < 0) {
+                        comicEnd = lineEnd;
+                    }
+                    if (!(Arrays.equals(bytes, comma + 1, comicEnd, lastComic, 0, lastComic.length))) {
+                        lastComic = Arrays.copyOfRange(bytes, comma + 1, comicEnd);
+                        comic = new String(lastComic, StandardCharsets.UTF_8);
+                    }
+                    String character = new String(bytes, start, comma - start, StandardCharsets.UTF_8);
+                    if (found.computeIfAbsent(comic, k -> new HashSet<>()).add(character)) {
+                        List<String> characters = comics.computeIfAbsent(comic, k -> new ArrayList<>());
+                        characters.add(character);
+                        appearance.accept(comic, characters);
+                    }
+                }
+                start = next;
             }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read file: " + filename, e);
+        }
+        return comics;
+    }
 
-            // no duplicates in the characterList for each comic
-            if (!(comics.get(comic).contains(character))) {
-                comics.get(comic).add(character);
+    /**
+     * Returns the index of the first b in bytes[from..to), or -1 if there is none
+     */
+    private static int indexOf(byte[] bytes, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
             }
         }
-        return comics;
+        return -1;
     }
 
     /**
-     * Reads all lines contained within the provided data file, which is located
-     * relative to the data/ folder in this parser's classpath.
+     * Opens the provided data file, which is located relative to the data/ folder in
+     * this parser's classpath.
      *
-     * @param filename The file to read.
-     * @throws IllegalArgumentException if the file doesn't exist, has an invalid name,
-                                        or can't be read
-     * @return A new {@link List<String>} containing all lines in the file.
+     * @param filename The file to open.
+     * @throws IllegalArgumentException if the file doesn't exist or has an invalid name
+     * @return A new stream over the bytes of the file.
      */
-    private static List<String> readLines(String filename) {
+    private static InputStream openData(String filename) {
         // Note:
         // Most students won't re-write this code anywhere, this explanation is just for
         // completeness.
@@ -76,9 +164,9 @@ public class MarvelParser {
         InputStream stream = MarvelParser.class.getResourceAsStream("/data/" + filename);
         if (stream == null) {
             // The file doesn't exist. We want to handle this case so we don't try to call
-            // readLines and have a null pointer exception.
+            // read from it and have a null pointer exception.
             throw new IllegalArgumentException("No such file: " + filename);
         }
-        return new BufferedReader(new InputStreamReader(stream)).lines().collect(Collectors.toList());
+        return stream;
     }
 }
@@ -1,7 +1,11 @@
 package marvel;
 import graph.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * This class will build a labeled graph that consists of
@@ -17,12 +21,23 @@ public class MarvelPaths {
      * for the user to input two marvel characters to see if they are linked between comic
      * books. At the end, it will ask the user if they want to continue and search again
      * or exit the program. If a path is found, it will display so, if none is found, it
-     * will also display so.
+     * will also display so. If a graph file is given as the first argument, the graph is
+     * loaded from it, and if that file does not exist yet it is saved there after being
+     * built from marvel.csv, so later runs start without parsing the csv.
      *
-     * @param args main method
+     * @param args main method, optionally the name of a graph file
      */
     public static void main(String[] args) {
-        Graph<String, String> marvelGraph = MarvelPaths.graphCreator("marvel.csv");
+        ImmutableGraph<String, String> marvelGraph;
+        if (args.length > 0 && Files.exists(Paths.get(args[0]))) {
+            marvelGraph = MarvelPaths.loadGraph(args[0]);
+        } else {
+            Graph<String, String> built = MarvelPaths.graphCreator("marvel.csv");
+            if (args.length > 0) {
+                MarvelPaths.saveGraph(built, args[0]);
+            }
+            marvelGraph = built.freeze();
+        }
         Scanner input = new Scanner(System.in);
         Scanner answer = new Scanner(System.in);
         boolean again = true;
@@ -41,13 +56,13 @@ public class MarvelPaths {
             } else {
                 System.out.println();
                 System.out.println("Searching for " + char1 + " and " + char2 + " paths");
-                List<Graph<String, String>.Edge> path = findPath(marvelGraph, char1, char2);
+                List<Graph.Edge<String, String>> path = findPath(marvelGraph, char1, char2);
                 if (path == null) {
                     System.out.println("Path from " + char1 + " to " + char2 + " was not found.");
                 } else {
                     // String to set new parent node after each iteration
                     String parent = char1;
-                    for (Graph<String, String>.Edge edge : path) {
+                    for (Graph.Edge<String, String> edge : path) {
                         System.out.println(edge.getParent() + " to " + edge.getChild() +
                                 " via " + edge.getLabel());
                         parent = edge.getChild();
@@ -83,32 +98,97 @@ public class MarvelPaths {
             throw new IllegalArgumentException("File name cannot be null");
         } else {
 
-            Map<String, List<String>> comics = MarvelParser.parseData(fileName);
-            Graph<String, String> marvelGraph = new Graph<>();
+            // sorted, so findPath can visit the edges of a node in order without sorting them
+            GraphBuilder<String, String> builder = new GraphBuilder<String, String>()
+                    .sortedBy(Comparator.naturalOrder(), Comparator.naturalOrder());
 
-            for (String comic : comics.keySet()) {
-                // Characters in each comic and then iterate through each
-                List<String> charsInComic = comics.get(comic);
-                for (int i = 0; i < charsInComic.size(); i++) {
+            // connect each character to the ones already found in the comic while the file is read
+            MarvelParser.parseData(fileName, (comic, charsInComic) -> {
+                int last = charsInComic.size() - 1;
+                String child = charsInComic.get(last);
+                builder.addNode(child);
+                for (int i = 0; i < last; i++) {
                     String parent = charsInComic.get(i);
-                    // Check if the parent node already exists in the graph
-                    if (!(marvelGraph.containsNode(parent))) {
-                        marvelGraph.addNode(parent);
-                    }
-                    for (int j = i + 1; j < charsInComic.size(); j++) {
-                        String child = charsInComic.get(j);
-                        if (!(child.isEmpty()) && !(marvelGraph.containsNode(child))) {
-                            marvelGraph.addNode(child);
-                        }
-                        marvelGraph.addEdge(parent, child, comic);
-                        marvelGraph.addEdge(child, parent, comic);
-                    }
+                    builder.addEdge(parent, child, comic);
+                    builder.addEdge(child, parent, comic);
                 }
-            }
+            });
+            Graph<String, String> marvelGraph = builder.build();
             return marvelGraph;
         }
     }
 
+    /**
+     * Builds a graph using the file given as argument, like graphCreator(String). In
+     * parallel mode the comics are split between the threads of the common ForkJoinPool,
+     * which each build part of the graph, so the build uses every core.
+     *
+     * @param fileName the file given that the graph builds from
+     * @param parallel true to build the graph on several threads, false to build it on this one
+     * @return a new marvel graph, with the same nodes and edges in either mode
+     * @throws IllegalArgumentException fileName != null
+     */
+    public static Graph<String, String> graphCreator(String fileName, boolean parallel) {
+        if (!(parallel)) {
+            return graphCreator(fileName);
+        } else if (fileName == null) {
+            throw new IllegalArgumentException("File name cannot be null");
+        }
+        Map<String, List<String>> comics = MarvelParser.parseData(fileName);
+        List<Map.Entry<String, List<String>>> comicList = new ArrayList<>(comics.entrySet());
+        return new ParallelGraphBuilder<String, String>()
+                .addAll(comicList, (comic, shard) -> {
+                    List<String> charsInComic = comic.getValue();
+                    for (int i = 0; i < charsInComic.size(); i++) {
+                        String parent = charsInComic.get(i);
+                        shard.addNode(parent);
+                        for (int j = i + 1; j < charsInComic.size(); j++) {
+                            String child = charsInComic.get(j);
+                            shard.addEdge(parent, child, comic.getKey());
+                            shard.addEdge(child, parent, comic.getKey());
+                        }
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Saves a graph to a binary graph file that loadGraph can read
+     *
+     * @param graph the graph to save
+     * @param fileName the file to write, replaced if it exists
+     * @throws IllegalArgumentException if graph or fileName is null or the file can't be written
+     */
+    public static void saveGraph(AbstractGraph<String, String> graph, String fileName) {
+        if (graph == null || fileName == null) {
+            throw new IllegalArgumentException("Graph and file name cannot be null");
+        }
+        try {
+            GraphFile.write(graph.freeze(), Paths.get(fileName), GraphCodec.strings(), GraphCodec.strings());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write graph file: " + fileName, e);
+        }
+    }
+
+    /**
+     * Loads a graph saved by saveGraph. The file is memory-mapped, so even the full
+     * marvel graph can be searched right away instead of being rebuilt from the csv.
+     *
+     * @param fileName the graph file to read
+     * @return the graph stored in the file
+     * @throws IllegalArgumentException if fileName is null or the file can't be read
+     */
+    public static ImmutableGraph<String, String> loadGraph(String fileName) {
+        if (fileName == null) {
+            throw new IllegalArgumentException("File name cannot be null");
+        }
+        try {
+            return GraphFile.load(Paths.get(fileName), GraphCodec.strings(), GraphCodec.strings());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read graph file: " + fileName, e);
+        }
+    }
+
     /**
      * Finds the shortest path between characters using breadth-first search.
      * Will return the shortest path between the char1 and char2. WIll be
@@ -120,7 +200,7 @@ public class MarvelPaths {
      * @return the shortest path between characters (char1 and char2)
      * @throws IllegalArgumentException if char1 or char2 is not in the graph or graph is null
      */
-    public static List<Graph<String, String>.Edge> findPath(Graph<String, String> graph, String char1, String char2) {
+    public static List<Graph.Edge<String, String>> findPath(AbstractGraph<String, String> graph, String char1, String char2) {
         // Check for null or invalid input
         if (graph == null || char1 == null || char2 == null) {
             throw new IllegalArgumentException("Invalid input: graph, char1, and char2 cannot be null");
@@ -131,47 +211,542 @@ public class MarvelPaths {
         if (!(graph.containsNode(char2))) {
             throw new IllegalArgumentException("Char2 not found in graph: " + char2);
         }
-        Queue<String> nodeQueue = new LinkedList<>();
-        // Create a map to store the shortest path to each node
-        Map<String, List<Graph<String, String>.Edge>> nodePath = new TreeMap<>();
-        // Initialize the shortest path for the char1 node
-        List<Graph<String, String>.Edge> startPath = new ArrayList<>();
-        nodePath.put(char1, startPath);
+        // characters in different components have no path, so skip the search
+        if (!(graph.mayReach(char1, char2))) {
+            return null;
+        }
+        boolean presorted = isSortedByName(graph);
+        Queue<String> nodeQueue = new ArrayDeque<>();
+        // Create a map to store the edge each reached node was first reached by. Only
+        // that one edge is kept per node; the path is rebuilt from them at the end
+        Map<String, Graph.Edge<String, String>> prevEdge = new HashMap<>();
+        // The char1 node is reached without an edge
+        prevEdge.put(char1, null);
         // Add the char1 node to the queue
         nodeQueue.offer(char1);
         // While the queue is not empty, process the next node in the queue
         while (!nodeQueue.isEmpty()) {
             String currNode = nodeQueue.poll();
-            List<Graph<String, String>.Edge> currPath = nodePath.get(currNode);
             // If we have reached the end node, return the shortest path
             if (currNode.equals(char2)) {
-                return currPath;
+                return pathTo(prevEdge, char2);
+            }
+            // Iterate over the edges of the current node, sorted lexicographically by child
+            // then label. A graph sorted that way already lists them in order; otherwise
+            // they are copied from the live view, so the graph's edge set is not duplicated
+            Collection<Graph.Edge<String, String>> sortedEdges = graph.edgesView(currNode);
+            if (!(presorted)) {
+                sortedEdges = sortEdges(sortedEdges);
+            }
+            for (Graph.Edge<String, String> edge : sortedEdges) {
+                String childNode = edge.getChild();
+                // If the child node has not been visited, add it to the queue and remember how it was reached
+                if (!(prevEdge.containsKey(childNode))) {
+                    prevEdge.put(childNode, edge);
+                    nodeQueue.offer(childNode);
+                }
+            }
+        }
+        // If we reach here, there is no path from char1 to char2
+        return null;
+    }
+
+    /**
+     * Returns the path to node by following the edges nodes were reached by back to
+     * the start of the search
+     *
+     * @param prevEdge the edge each reached node was reached by, null for the start
+     * @param node the node the path ends at
+     * @return the edges from the start of the search to node, in order
+     */
+    private static List<Graph.Edge<String, String>> pathTo(Map<String, Graph.Edge<String, String>> prevEdge,
+                                                          String node) {
+        List<Graph.Edge<String, String>> path = new ArrayList<>();
+        for (Graph.Edge<String, String> edge = prevEdge.get(node); edge != null;
+             edge = prevEdge.get(edge.getParent())) {
+            path.add(edge);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns true if graph keeps the edges of each node sorted by child, then by label,
+     * in the natural order of strings
+     */
+    private static boolean isSortedByName(AbstractGraph<String, String> graph) {
+        return Comparator.naturalOrder().equals(graph.nodeOrder())
+                && Comparator.naturalOrder().equals(graph.labelOrder());
+    }
+
+    /**
+     * Returns a copy of edges sorted by child, then by label
+     */
+    private static List<Graph.Edge<String, String>> sortEdges(Collection<Graph.Edge<String, String>> edges) {
+        List<Graph.Edge<String, String>> sortedEdges = new ArrayList<>(edges);
+        // lambda expression takes two edges and compares them
+        sortedEdges.sort((e1, e2) -> {
+            // compares the child vertices of e1 to the child of e2
+            // if e1 < e2, result will be negative, if equal will be 0, and if e1 > e2 result will be positive
+            int compare = e1.getChild().compareTo(e2.getChild());
+            if (compare != 0) {
+                return compare;
+            }
+            else {
+                // if the vertices are equal, will compare and sort via the label
+                return e1.getLabel().compareTo(e2.getLabel());
+            }
+        });
+        return sortedEdges;
+    }
+
+    /**
+     * Finds the shortest path between characters like findPath(Graph, String, String),
+     * and returns the same path. In bidirectional mode the search grows from both ends
+     * at once, a level at a time from whichever end has the smaller frontier, following
+     * children forward from char1 and parents backward from char2, and stops as soon as
+     * the two meet. Far-apart characters are then found after exploring two small balls
+     * around the ends instead of most of the graph.
+     *
+     * @param graph the graph being searched to find the shortest path
+     * @param char1 the starting character (node)
+     * @param char2 the ending character (node)
+     * @param bidirectional true to search from both ends, false to search from char1 only
+     * @return the shortest path between characters (char1 and char2), null if there is none
+     * @throws IllegalArgumentException if char1 or char2 is not in the graph or graph is null
+     */
+    public static List<Graph.Edge<String, String>> findPath(AbstractGraph<String, String> graph, String char1,
+                                                           String char2, boolean bidirectional) {
+        if (!(bidirectional)) {
+            return findPath(graph, char1, char2);
+        }
+        if (graph == null || char1 == null || char2 == null) {
+            throw new IllegalArgumentException("Invalid input: graph, char1, and char2 cannot be null");
+        }
+        if (!(graph.containsNode(char1))) {
+            throw new IllegalArgumentException("Char1 not found in graph: " + char1);
+        }
+        if (!(graph.containsNode(char2))) {
+            throw new IllegalArgumentException("Char2 not found in graph: " + char2);
+        }
+        if (!(graph.mayReach(char1, char2))) {
+            return null;
+        }
+        // distance of each node reached from char1, and to char2 for nodes reached backward
+        Map<String, Integer> fromStart = new HashMap<>();
+        Map<String, Integer> toEnd = new HashMap<>();
+        fromStart.put(char1, 0);
+        toEnd.put(char2, 0);
+        List<String> forward = new ArrayList<>(Collections.singletonList(char1));
+        List<String> backward = new ArrayList<>(Collections.singletonList(char2));
+        int forwardDepth = 0;
+        int backwardDepth = 0;
+        boolean met = char1.equals(char2);
+        while (!(met) && !(forward.isEmpty()) && !(backward.isEmpty())) {
+            // expand a whole level, so every node where the searches meet is found
+            if (forward.size() <= backward.size()) {
+                forwardDepth++;
+                forward = expandLevel(forward, forwardDepth, fromStart, graph::childrenView);
+                met = meets(forward, toEnd);
+            } else {
+                backwardDepth++;
+                backward = expandLevel(backward, backwardDepth, toEnd, graph::parentsView);
+                met = meets(backward, fromStart);
+            }
+        }
+        if (!(met)) {
+            return null;
+        }
+        // No shorter path was missed: the levels before the last one expanded were disjoint
+        // from the other search. So the path has forwardDepth + backwardDepth edges, and the
+        // nodes after the first forwardDepth are exactly those with the right distance to
+        // char2. Mark the nodes of the forward levels that lead to the meeting level.
+        int length = forwardDepth + backwardDepth;
+        Set<String> leadsToEnd = new HashSet<>();
+        List<String> level = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : fromStart.entrySet()) {
+            if (entry.getValue() == forwardDepth && toEnd.get(entry.getKey()) != null
+                    && toEnd.get(entry.getKey()) == backwardDepth) {
+                level.add(entry.getKey());
+            }
+        }
+        for (int depth = forwardDepth; depth > 0; depth--) {
+            leadsToEnd.addAll(level);
+            List<String> previous = new ArrayList<>();
+            for (String node : level) {
+                for (String parent : graph.parentsView(node)) {
+                    Integer distance = fromStart.get(parent);
+                    if (distance != null && distance == depth - 1 && !(leadsToEnd.contains(parent))) {
+                        leadsToEnd.add(parent);
+                        previous.add(parent);
+                    }
+                }
+            }
+            level = previous;
+        }
+        // BFS from char1 reaches each node first through its smallest child, then its
+        // smallest label, so the path it returns takes the smallest child left on a
+        // shortest path at every step
+        boolean presorted = isSortedByName(graph);
+        List<Graph.Edge<String, String>> path = new ArrayList<>();
+        String currNode = char1;
+        for (int step = 1; step <= length; step++) {
+            String next = null;
+            for (String child : graph.childrenView(currNode)) {
+                boolean onPath;
+                if (step <= forwardDepth) {
+                    Integer distance = fromStart.get(child);
+                    onPath = distance != null && distance == step && leadsToEnd.contains(child);
+                } else {
+                    Integer distance = toEnd.get(child);
+                    onPath = distance != null && distance == length - step;
+                }
+                if (onPath && (next == null || child.compareTo(next) < 0)) {
+                    next = child;
+                    if (presorted) {
+                        // the children come in order, so the first one on a path is the smallest
+                        break;
+                    }
+                }
+            }
+            path.add(new Graph.Edge<>(currNode, next, Collections.min(graph.getLabel(currNode, next))));
+            currNode = next;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the nodes one step past level that have no distance yet, giving each of
+     * them the distance depth
+     *
+     * @param level the nodes of the last level reached
+     * @param depth the distance of the new level
+     * @param distances the distances of the nodes reached so far by this search
+     * @param neighbors the nodes one step from a node, in the direction of this search
+     * @return the new level
+     */
+    private static List<String> expandLevel(List<String> level, int depth, Map<String, Integer> distances,
+                                            Function<String, Set<String>> neighbors) {
+        List<String> next = new ArrayList<>();
+        for (String node : level) {
+            for (String neighbor : neighbors.apply(node)) {
+                if (!(distances.containsKey(neighbor))) {
+                    distances.put(neighbor, depth);
+                    next.add(neighbor);
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns true if any node of level was reached by the other search
+     */
+    private static boolean meets(List<String> level, Map<String, Integer> others) {
+        for (String node : level) {
+            if (others.containsKey(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds every character within a number of hops of a character, exploring the
+     * graph one level at a time and only as far as hops
+     *
+     * @param graph the graph being searched
+     * @param character the character to start at
+     * @param hops the largest number of edges to follow
+     * @return the characters with a path of at most hops edges from character, each
+     * mapped to the length of its shortest path, in order of that length
+     * @throws IllegalArgumentException if graph or character is null, character is not
+     * in the graph, or hops is negative
+     */
+    public static Map<String, Integer> charactersWithin(AbstractGraph<String, String> graph, String character, int hops) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("Hops cannot be negative");
+        }
+        Map<String, Integer> within = new LinkedHashMap<>();
+        BreadthFirstLevels.stream(graph, character)
+                .limit(hops + 1L)
+                .forEach(level -> {
+                    for (String node : level.getNodes()) {
+                        within.put(node, level.getDistance());
+                    }
+                });
+        return within;
+    }
+
+    /**
+     * Finds the degrees of separation of many pairs of characters at once, like
+     * degreesOfSeparation(ImmutableGraph, List) on the frozen form of graph
+     *
+     * @param graph the graph being searched
+     * @param pairs the pairs of characters, each from its key to its value
+     * @return the number of edges on a shortest path from the key to the value of each
+     * pair, in the order of pairs, or -1 for a pair with no path
+     * @throws IllegalArgumentException if graph or pairs is null, or a pair is null or
+     * has a character that is not in the graph
+     */
+    public static int[] degreesOfSeparation(AbstractGraph<String, String> graph,
+                                            List<? extends Map.Entry<String, String>> pairs) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Invalid input: graph cannot be null");
+        }
+        return degreesOfSeparation(graph.freeze(), pairs);
+    }
+
+    /**
+     * Finds the degrees of separation of many pairs of characters at once: the number of
+     * edges on a shortest path between the characters of each pair. Instead of one search
+     * per pair, the pairs are grouped by their first character, and a single breadth-first
+     * search from each distinct first character answers every pair in its group, stopping
+     * once all of their second characters are reached. The searches run in parallel on
+     * the common ForkJoinPool.
+     *
+     * @param graph the graph being searched
+     * @param pairs the pairs of characters, each from its key to its value
+     * @return the number of edges on a shortest path from the key to the value of each
+     * pair, in the order of pairs, or -1 for a pair with no path
+     * @throws IllegalArgumentException if graph or pairs is null, or a pair is null or
+     * has a character that is not in the graph
+     */
+    public static int[] degreesOfSeparation(ImmutableGraph<String, String> graph,
+                                            List<? extends Map.Entry<String, String>> pairs) {
+        if (graph == null || pairs == null) {
+            throw new IllegalArgumentException("Invalid input: graph and pairs cannot be null");
+        }
+        // the target id of each pair, and the indexes of the pairs of each source id
+        int[] targets = new int[pairs.size()];
+        Map<Integer, List<Integer>> bySource = new HashMap<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            Map.Entry<String, String> pair = pairs.get(i);
+            if (pair == null || pair.getKey() == null || pair.getValue() == null) {
+                throw new IllegalArgumentException("Invalid input: pairs and characters cannot be null");
+            } else if (!(graph.containsNode(pair.getKey()))) {
+                throw new IllegalArgumentException("Char1 not found in graph: " + pair.getKey());
+            } else if (!(graph.containsNode(pair.getValue()))) {
+                throw new IllegalArgumentException("Char2 not found in graph: " + pair.getValue());
+            }
+            targets[i] = graph.idOf(pair.getValue());
+            bySource.computeIfAbsent(graph.idOf(pair.getKey()), k -> new ArrayList<>()).add(i);
+        }
+        int[] distances = new int[pairs.size()];
+        // pairs in different components are answered here; a source whose pairs all
+        // are needs no search at all
+        for (Iterator<Map.Entry<Integer, List<Integer>>> groups = bySource.entrySet().iterator();
+             groups.hasNext(); ) {
+            Map.Entry<Integer, List<Integer>> group = groups.next();
+            group.getValue().removeIf(pair -> {
+                if (!(graph.mayReach(group.getKey(), targets[pair]))) {
+                    distances[pair] = -1;
+                    return true;
+                }
+                return false;
+            });
+            if (group.getValue().isEmpty()) {
+                groups.remove();
+            }
+        }
+        // each search writes only the distances of its own pairs
+        new ArrayList<>(bySource.entrySet()).parallelStream().forEach(group ->
+                answerFrom(graph, group.getKey(), group.getValue(), targets, distances));
+        return distances;
+    }
+
+    /**
+     * Runs a breadth-first search from source and fills in the distances of the given
+     * pairs, stopping as soon as the targets of all of them are reached
+     *
+     * @param graph the graph being searched
+     * @param source the id of the node every pair starts at
+     * @param pairIndexes the indexes of the pairs that start at source
+     * @param targets the target id of every pair
+     * @param distances where the distance of every pair is stored, -1 if there is no path
+     */
+    private static void answerFrom(ImmutableGraph<String, String> graph, int source, List<Integer> pairIndexes,
+                                   int[] targets, int[] distances) {
+        int[] distance = new int[graph.totalNodes()];
+        Arrays.fill(distance, -1);
+        boolean[] wanted = new boolean[graph.totalNodes()];
+        int remaining = 0;
+        for (int pair : pairIndexes) {
+            if (!(wanted[targets[pair]])) {
+                wanted[targets[pair]] = true;
+                remaining++;
+            }
+        }
+        int[] nodeQueue = new int[graph.totalNodes()];
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        nodeQueue[tail++] = source;
+        if (wanted[source]) {
+            remaining--;
+        }
+        while (head < tail && remaining > 0) {
+            int currNode = nodeQueue[head++];
+            for (int edge = graph.edgeStart(currNode); edge < graph.edgeEnd(currNode); edge++) {
+                int childNode = graph.target(edge);
+                if (distance[childNode] == -1) {
+                    distance[childNode] = distance[currNode] + 1;
+                    nodeQueue[tail++] = childNode;
+                    if (wanted[childNode]) {
+                        remaining--;
+                    }
+                }
+            }
+        }
+        for (int pair : pairIndexes) {
+            distances[pair] = distance[targets[pair]];
+        }
+    }
+
+    /**
+     * Finds the shortest path between characters in an immutable graph using
+     * breadth-first search. Returns the same path as findPath on a Graph with the
+     * same nodes and edges.
+     *
+     * @param graph the graph being searched to find the shortest path
+     * @param char1 the starting character (node)
+     * @param char2 the ending character (node)
+     * @return the shortest path between characters (char1 and char2), null if there is none
+     * @throws IllegalArgumentException if char1 or char2 is not in the graph or graph is null
+     */
+    public static List<Graph.Edge<String, String>> findPath(ImmutableGraph<String, String> graph,
+                                                           String char1, String char2) {
+        if (graph == null || char1 == null || char2 == null) {
+            throw new IllegalArgumentException("Invalid input: graph, char1, and char2 cannot be null");
+        }
+        if (!(graph.containsNode(char1))) {
+            throw new IllegalArgumentException("Char1 not found in graph: " + char1);
+        }
+        if (!(graph.containsNode(char2))) {
+            throw new IllegalArgumentException("Char2 not found in graph: " + char2);
+        }
+        int start = graph.idOf(char1);
+        int end = graph.idOf(char2);
+        if (!(graph.mayReach(start, end))) {
+            return null;
+        }
+        // prevEdge[id] is the edge the search reached node id by, -1 for the start
+        // and -2 for nodes not reached yet
+        int[] prevEdge = new int[graph.totalNodes()];
+        int[] prevNode = new int[graph.totalNodes()];
+        Arrays.fill(prevEdge, -2);
+        prevEdge[start] = -1;
+        int[] nodeQueue = new int[graph.totalNodes()];
+        int head = 0;
+        int tail = 0;
+        nodeQueue[tail++] = start;
+        while (head < tail) {
+            int currNode = nodeQueue[head++];
+            if (currNode == end) {
+                LinkedList<Graph.Edge<String, String>> path = new LinkedList<>();
+                for (int node = end; prevEdge[node] != -1; node = prevNode[node]) {
+                    path.addFirst(new Graph.Edge<>(graph.nodeAt(prevNode[node]), graph.nodeAt(node),
+                            graph.label(prevEdge[node])));
+                }
+                return new ArrayList<>(path);
+            }
+            // same order as findPath on a Graph: by child, then by label. Edges to nodes
+            // already reached are skipped before sorting, which does not change the order
+            // of the others
+            List<Integer> sortedEdges = new ArrayList<>();
+            for (int edge = graph.edgeStart(currNode); edge < graph.edgeEnd(currNode); edge++) {
+                if (prevEdge[graph.target(edge)] == -2) {
+                    sortedEdges.add(edge);
+                }
             }
-            // Iterate over the edges of the current node, sorted lexicographically by label
-            List<Graph<String, String>.Edge> sortedEdges = new ArrayList<>(graph.listEdges(currNode));
-            // lambda expression takes two edges and compares them
             sortedEdges.sort((e1, e2) -> {
-                // compares the child vertices of e1 to the child of e2
-                // if e1 < e2, result will be negative, if equal will be 0, and if e1 > e2 result will be positive
-                int compare = e1.getChild().compareTo(e2.getChild());
+                int compare = graph.nodeAt(graph.target(e1)).compareTo(graph.nodeAt(graph.target(e2)));
                 if (compare != 0) {
                     return compare;
                 }
-                else {
-                    // if the vertices are equal, will compare and sort via the label
-                    return e1.getLabel().compareTo(e2.getLabel());
-                }
+                return graph.label(e1).compareTo(graph.label(e2));
             });
-            for (Graph<String, String>.Edge edge : sortedEdges) {
-                String childNode = edge.getChild();
-                // If the child node has not been visited, add it to the queue and update the shortest path
-                if (!(nodePath.containsKey(childNode))) {
-                    List<Graph<String, String>.Edge> newPath = new ArrayList<>(currPath);
-                    newPath.add(edge);
-                    nodePath.put(childNode, newPath);
-                    nodeQueue.offer(childNode);
+            for (int edge : sortedEdges) {
+                int childNode = graph.target(edge);
+                if (prevEdge[childNode] == -2) {
+                    prevEdge[childNode] = edge;
+                    prevNode[childNode] = currNode;
+                    nodeQueue[tail++] = childNode;
+                }
+            }
+        }
+        // If we reach here, there is no path from char1 to char2
+        return null;
+    }
+
+    /**
+     * Finds the shortest path between characters of a ComicGraph using breadth-first
+     * search. Returns the same path as findPath on the Graph built by graphCreator from
+     * the same file, without building an edge for every pair of characters in a comic:
+     * the search steps from a character to its comics and from those to their casts, and
+     * scans the cast of each comic at most once.
+     *
+     * @param graph the graph being searched to find the shortest path
+     * @param char1 the starting character
+     * @param char2 the ending character
+     * @return the shortest path between characters (char1 and char2), each edge labeled
+     * with a comic both characters appear in, null if there is none
+     * @throws IllegalArgumentException if char1 or char2 is not in the graph or graph is null
+     */
+    public static List<Graph.Edge<String, String>> findPath(ComicGraph graph, String char1, String char2) {
+        if (graph == null || char1 == null || char2 == null) {
+            throw new IllegalArgumentException("Invalid input: graph, char1, and char2 cannot be null");
+        }
+        if (!(graph.containsCharacter(char1))) {
+            throw new IllegalArgumentException("Char1 not found in graph: " + char1);
+        }
+        if (!(graph.containsCharacter(char2))) {
+            throw new IllegalArgumentException("Char2 not found in graph: " + char2);
+        }
+        int start = graph.characterId(char1);
+        int end = graph.characterId(char2);
+        // prevComic[id] is the comic the search reached character id by, -1 for the start
+        // and -2 for characters not reached yet; prevCharacter[id] is who it was reached from
+        int[] prevComic = new int[graph.totalCharacters()];
+        int[] prevCharacter = new int[graph.totalCharacters()];
+        Arrays.fill(prevComic, -2);
+        prevComic[start] = -1;
+        // a comic is scanned once all of its cast has been reached
+        boolean[] scanned = new boolean[graph.totalComics()];
+        int[] characterQueue = new int[graph.totalCharacters()];
+        int head = 0;
+        int tail = 0;
+        characterQueue[tail++] = start;
+        while (head < tail) {
+            int currCharacter = characterQueue[head++];
+            if (currCharacter == end) {
+                LinkedList<Graph.Edge<String, String>> path = new LinkedList<>();
+                for (int character = end; prevComic[character] != -1; character = prevCharacter[character]) {
+                    path.addFirst(new Graph.Edge<>(graph.characterAt(prevCharacter[character]),
+                            graph.characterAt(character), graph.comicAt(prevComic[character])));
+                }
+                return new ArrayList<>(path);
+            }
+            // comics are in name order, so the first one a new character is found in is
+            // the least comic it shares with currCharacter, the label findPath picks
+            int found = tail;
+            for (int appearance = graph.comicsStart(currCharacter); appearance < graph.comicsEnd(currCharacter);
+                 appearance++) {
+                int comic = graph.comicOf(appearance);
+                if (!(scanned[comic])) {
+                    scanned[comic] = true;
+                    for (int member = graph.castStart(comic); member < graph.castEnd(comic); member++) {
+                        int character = graph.castMember(member);
+                        if (prevComic[character] == -2) {
+                            prevComic[character] = comic;
+                            prevCharacter[character] = currCharacter;
+                            characterQueue[tail++] = character;
+                        }
+                    }
                 }
             }
+            // findPath visits the children of a node in name order, which is id order
+            Arrays.sort(characterQueue, found, tail);
         }
         // If we reach here, there is no path from char1 to char2
         return null;
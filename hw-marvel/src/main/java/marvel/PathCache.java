@@ -0,0 +1,200 @@
+package marvel;
+
+import graph.AbstractGraph;
+import graph.Graph;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PathCache remembers the paths MarvelPaths.findPath found in one graph, so asking for
+ * the same two characters again does not search the graph again. It holds at most a
+ * fixed number of paths and drops the one asked for least recently to make room for a
+ * new one. Every path it holds was found at the current version of the graph: as soon
+ * as the graph is changed, the paths found before are dropped. It can be shared by
+ * several threads; searches for paths that are not held run at the same time.
+ */
+public final class PathCache {
+    private final AbstractGraph<String, String> graph;
+    private final int capacity;
+    private final boolean reuseReversed;
+    private final LinkedHashMap<Map.Entry<String, String>, List<Graph.Edge<String, String>>> paths;
+    private long version;
+    private long hits = 0;
+    private long misses = 0;
+
+    // Rep Invariant:
+    // graph != null, paths != null and capacity >= 1
+    // paths.size() <= capacity
+    // every key of paths is a pair of characters of graph, and its value is null or
+    // an unmodifiable list of edges
+    // hits >= 0 and misses >= 0
+    //
+    // Abstract Function:
+    // PathCache c represents the paths from characters a to b that are the values of
+    // paths.get((a, b)), null meaning there is no path, all found when graph was at
+    // version. paths is in access order, so its first key is the one asked for least
+    // recently. hits and misses count the findPath calls answered with and without
+    // searching the graph.
+
+    /**
+     * Creates an empty cache of paths in graph
+     * @param graph the graph the paths are found in
+     * @param capacity the most paths the cache holds at once
+     * @spec.effects constructs a cache that holds no paths
+     * @throws IllegalArgumentException if graph is null or capacity < 1
+     */
+    public PathCache(AbstractGraph<String, String> graph, int capacity) {
+        this(graph, capacity, false);
+    }
+
+    /**
+     * Creates an empty cache of paths in graph. If reuseReversed is true, a path from b
+     * to a that is held is also used to answer a query from a to b, when every edge of
+     * it has an edge back with the same label, as in the graphs made by
+     * MarvelPaths.graphCreator. The reversed path is a shortest path, but may not be
+     * the one findPath would pick among several of the same length.
+     * @param graph the graph the paths are found in
+     * @param capacity the most paths the cache holds at once
+     * @param reuseReversed true to answer queries with reversed paths
+     * @spec.effects constructs a cache that holds no paths
+     * @throws IllegalArgumentException if graph is null or capacity < 1
+     */
+    public PathCache(AbstractGraph<String, String> graph, int capacity, boolean reuseReversed) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        } else if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.graph = graph;
+        this.capacity = capacity;
+        this.reuseReversed = reuseReversed;
+        this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Map.Entry<String, String>,
+                    List<Graph.Edge<String, String>>> eldest) {
+                return size() > PathCache.this.capacity;
+            }
+        };
+        this.version = graph.version();
+        checkRep();
+    }
+
+    /**
+     * Returns the shortest path between characters, the same path as
+     * MarvelPaths.findPath on the graph of this cache, searching the graph only if the
+     * path is not held yet
+     * @param char1 the starting character
+     * @param char2 the ending character
+     * @return unmodifiable shortest path between characters (char1 and char2), null if
+     * there is none
+     * @spec.modifies this
+     * @throws IllegalArgumentException if char1 or char2 is null or not in the graph
+     */
+    public List<Graph.Edge<String, String>> findPath(String char1, String char2) {
+        if (char1 == null || char2 == null) {
+            throw new IllegalArgumentException("Invalid input: char1 and char2 cannot be null");
+        }
+        Map.Entry<String, String> key = new AbstractMap.SimpleImmutableEntry<>(char1, char2);
+        long searched;
+        synchronized (this) {
+            checkRep();
+            dropIfChanged();
+            if (this.paths.containsKey(key)) {
+                this.hits++;
+                return this.paths.get(key);
+            }
+            if (this.reuseReversed) {
+                List<Graph.Edge<String, String>> reversed =
+                        reverse(this.paths.get(new AbstractMap.SimpleImmutableEntry<>(char2, char1)));
+                if (reversed != null) {
+                    this.hits++;
+                    this.paths.put(key, reversed);
+                    return reversed;
+                }
+            }
+            this.misses++;
+            searched = this.version;
+        }
+        // searched outside the lock, so other threads can use the cache meanwhile
+        List<Graph.Edge<String, String>> path = MarvelPaths.findPath(this.graph, char1, char2, true);
+        if (path != null) {
+            path = Collections.unmodifiableList(path);
+        }
+        synchronized (this) {
+            dropIfChanged();
+            // a path found while the graph changed may be out of date, so it is not kept
+            if (this.version == searched) {
+                this.paths.put(key, path);
+            }
+            checkRep();
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of findPath calls answered without searching the graph
+     * @return the number of hits since this cache was made
+     */
+    public synchronized long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of findPath calls that searched the graph
+     * @return the number of misses since this cache was made
+     */
+    public synchronized long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of paths held for the current version of the graph
+     * @return the number of paths held
+     * @spec.modifies this
+     */
+    public synchronized int size() {
+        dropIfChanged();
+        return this.paths.size();
+    }
+
+    /**
+     * Drops every path if the graph has changed since they were found
+     */
+    private void dropIfChanged() {
+        long current = this.graph.version();
+        if (current != this.version) {
+            this.paths.clear();
+            this.version = current;
+        }
+    }
+
+    /**
+     * Returns path walked backwards, or null if path is null or an edge of it has no
+     * edge back with the same label
+     */
+    private List<Graph.Edge<String, String>> reverse(List<Graph.Edge<String, String>> path) {
+        if (path == null) {
+            return null;
+        }
+        List<Graph.Edge<String, String>> reversed = new ArrayList<>(path.size());
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Graph.Edge<String, String> edge = path.get(i);
+            if (!(this.graph.getLabel(edge.getChild(), edge.getParent()).contains(edge.getLabel()))) {
+                return null;
+            }
+            reversed.add(new Graph.Edge<>(edge.getChild(), edge.getParent(), edge.getLabel()));
+        }
+        return Collections.unmodifiableList(reversed);
+    }
+
+    private void checkRep() {
+        assert (this.graph != null && this.paths != null) : "graph and paths can't be null";
+        assert (this.paths.size() <= this.capacity) : "cache can't hold more than its capacity";
+        assert (this.hits >= 0 && this.misses >= 0) : "counters can't be negative";
+    }
+}
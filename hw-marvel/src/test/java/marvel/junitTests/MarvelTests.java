@@ -1,12 +1,25 @@
 package marvel.junitTests;
 
 import graph.Graph;
+import graph.ImmutableGraph;
+import marvel.ComicGraph;
+import marvel.MarvelParser;
 import marvel.MarvelPaths;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
 /**
  * This class tests MarvelTests
  */
@@ -45,4 +58,223 @@ public class MarvelTests {
         MarvelPaths.graphCreator(null);
     }
 
+    @Test
+    public void immutablePathsMatch() {
+        ImmutableGraph<String, String> frozen = graph1.freeze();
+        for (String char1 : graph1.listNodes()) {
+            for (String char2 : graph1.listNodes()) {
+                assertEquals(MarvelPaths.findPath(graph1, char1, char2),
+                        MarvelPaths.findPath(frozen, char1, char2));
+            }
+        }
+    }
+
+    @Test
+    public void savedGraphLoads() throws IOException {
+        File file = File.createTempFile("nflPlayers", ".bin");
+        try {
+            MarvelPaths.saveGraph(graph1, file.getPath());
+            ImmutableGraph<String, String> loaded = MarvelPaths.loadGraph(file.getPath());
+            assertEquals(graph1.totalNodes(), loaded.totalNodes());
+            assertEquals(graph1.totalEdges(), loaded.totalEdges());
+            for (String char2 : graph1.listNodes()) {
+                assertEquals(MarvelPaths.findPath(graph1, "TOM-BRADY", char2),
+                        MarvelPaths.findPath(loaded, "TOM-BRADY", char2));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void parallelBuildMatches() {
+        Graph<String, String> parallel = MarvelPaths.graphCreator("staffSuperheroes.csv", true);
+        Graph<String, String> serial = MarvelPaths.graphCreator("staffSuperheroes.csv");
+        assertEquals(serial.listNodes(), parallel.listNodes());
+        assertEquals(serial.totalEdges(), parallel.totalEdges());
+        for (String char1 : serial.listNodes()) {
+            for (String char2 : serial.listNodes()) {
+                assertEquals(serial.getLabel(char1, char2), parallel.getLabel(char1, char2));
+            }
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void loadMissingFile() {
+        MarvelPaths.loadGraph("noSuchGraph.bin");
+    }
+
+    @Test
+    public void parseLastLineWithoutNewline() {
+        Map<String, List<String>> comics = MarvelParser.parseData("staffSuperheroes.csv");
+        assertEquals(5, comics.size());
+        assertEquals(Arrays.asList("Ernst-the-Bicycling-Wizard", "Notkin-of-the-Superhuman-Beard",
+                "Perkins-the-Magical-Singing-Instructor", "Grossman-the-Youngest-of-them-all"),
+                comics.get("CSE331"));
+        assertEquals(Arrays.asList("Grossman-the-Youngest-of-them-all"), comics.get("CSE341"));
+    }
+
+    @Test
+    public void parseSkipsDuplicatesAndCarriageReturns() {
+        List<String> appearances = new ArrayList<>();
+        Map<String, List<String>> comics = MarvelParser.parseData("duplicateAppearances.csv",
+                (comic, characters) -> appearances.add(characters.get(characters.size() - 1) + " in " + comic));
+        assertEquals(Arrays.asList("HERO-A", "HERO-B"), comics.get("COMIC-1"));
+        assertEquals(Arrays.asList("HERO-B", "HERO-C"), comics.get("COMIC-2"));
+        assertEquals(Arrays.asList("HERO-A in COMIC-1", "HERO-B in COMIC-1", "HERO-B in COMIC-2",
+                "HERO-C in COMIC-2"), appearances);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void parseMissingFile() {
+        MarvelParser.parseData("noSuchFile.csv");
+    }
+
+    @Test
+    public void bidirectionalPathsMatch() {
+        for (String char1 : graph1.listNodes()) {
+            for (String char2 : graph1.listNodes()) {
+                assertEquals(MarvelPaths.findPath(graph1, char1, char2),
+                        MarvelPaths.findPath(graph1, char1, char2, true));
+            }
+        }
+    }
+
+    @Test
+    public void bidirectionalPathsMatchDirected() {
+        // one-way edges, several shortest paths, and a node that only leads away
+        Graph<String, String> graph = new Graph<>();
+        for (String node : Arrays.asList("a", "b", "c", "d", "e", "f", "g")) {
+            graph.addNode(node);
+        }
+        graph.addEdge("a", "c", "x");
+        graph.addEdge("a", "b", "y");
+        graph.addEdge("b", "d", "x");
+        graph.addEdge("c", "d", "z");
+        graph.addEdge("c", "d", "w");
+        graph.addEdge("c", "e", "x");
+        graph.addEdge("d", "f", "x");
+        graph.addEdge("e", "f", "x");
+        graph.addEdge("f", "a", "x");
+        graph.addEdge("g", "a", "x");
+        for (String char1 : graph.listNodes()) {
+            for (String char2 : graph.listNodes()) {
+                assertEquals(MarvelPaths.findPath(graph, char1, char2),
+                        MarvelPaths.findPath(graph, char1, char2, true));
+            }
+        }
+    }
+
+    @Test
+    public void sortedAndUnsortedPathsMatch() {
+        // the parallel build does not keep edges sorted, so findPath sorts them itself
+        Graph<String, String> unsorted = MarvelPaths.graphCreator("nflPlayers.csv", true);
+        assertNull(unsorted.nodeOrder());
+        assertNotNull(graph1.nodeOrder());
+        for (String char1 : graph1.listNodes()) {
+            for (String char2 : graph1.listNodes()) {
+                assertEquals(MarvelPaths.findPath(unsorted, char1, char2),
+                        MarvelPaths.findPath(graph1, char1, char2));
+                assertEquals(MarvelPaths.findPath(unsorted, char1, char2, true),
+                        MarvelPaths.findPath(graph1, char1, char2, true));
+            }
+        }
+    }
+
+    @Test
+    public void degreesOfSeparationMatchPaths() {
+        List<Map.Entry<String, String>> pairs = new ArrayList<>();
+        for (String char1 : graph1.listNodes()) {
+            for (String char2 : graph1.listNodes()) {
+                pairs.add(new AbstractMap.SimpleEntry<>(char1, char2));
+            }
+        }
+        int[] degrees = MarvelPaths.degreesOfSeparation(graph1, pairs);
+        for (int i = 0; i < pairs.size(); i++) {
+            List<Graph.Edge<String, String>> path = MarvelPaths.findPath(graph1, pairs.get(i).getKey(),
+                    pairs.get(i).getValue());
+            assertEquals(path == null ? -1 : path.size(), degrees[i]);
+        }
+    }
+
+    @Test
+    public void degreesOfSeparationNoPairs() {
+        assertEquals(0, MarvelPaths.degreesOfSeparation(graph1, new ArrayList<>()).length);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void degreesOfSeparationUnknownCharacter() {
+        MarvelPaths.degreesOfSeparation(graph1,
+                Arrays.asList(new AbstractMap.SimpleEntry<>("TOM-BRADY", "MARSHAWN-LYNCH")));
+    }
+
+    @Test
+    public void noPathExactlyWhenUnreachable() {
+        ImmutableGraph<String, String> frozen = graph1.freeze();
+        for (String char1 : graph1.listNodes()) {
+            for (String char2 : graph1.listNodes()) {
+                boolean reachable = MarvelPaths.findPath(graph1, char1, char2) != null;
+                assertEquals(reachable, graph1.mayReach(char1, char2));
+                assertEquals(reachable, frozen.mayReach(frozen.idOf(char1), frozen.idOf(char2)));
+            }
+        }
+    }
+
+    @Test
+    public void charactersWithinMatchPaths() {
+        for (int hops = 0; hops <= 3; hops++) {
+            Map<String, Integer> within = MarvelPaths.charactersWithin(graph1, "TOM-BRADY", hops);
+            for (String character : graph1.listNodes()) {
+                List<Graph.Edge<String, String>> path = MarvelPaths.findPath(graph1, "TOM-BRADY", character);
+                if (path != null && path.size() <= hops) {
+                    assertEquals(Integer.valueOf(path.size()), within.get(character));
+                } else {
+                    assertFalse(within.containsKey(character));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void comicGraphPathsMatch() {
+        for (String fileName : Arrays.asList("nflPlayers.csv", "staffSuperheroes.csv")) {
+            Graph<String, String> graph = MarvelPaths.graphCreator(fileName);
+            ComicGraph comics = ComicGraph.fromFile(fileName);
+            assertEquals(graph.totalNodes(), comics.totalCharacters());
+            for (String char1 : graph.listNodes()) {
+                for (String char2 : graph.listNodes()) {
+                    assertEquals(MarvelPaths.findPath(graph, char1, char2),
+                            MarvelPaths.findPath(comics, char1, char2));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void comicGraphStoresAppearancesOnce() {
+        ComicGraph comics = ComicGraph.fromFile("duplicateAppearances.csv");
+        Map<String, List<String>> parsed = MarvelParser.parseData("duplicateAppearances.csv");
+        assertEquals(parsed.size(), comics.totalComics());
+        assertEquals(parsed.values().stream().mapToInt(List::size).sum(), comics.totalAppearances());
+        for (int comic = 0; comic < comics.totalComics(); comic++) {
+            List<String> cast = new ArrayList<>();
+            for (int member = comics.castStart(comic); member < comics.castEnd(comic); member++) {
+                cast.add(comics.characterAt(comics.castMember(member)));
+            }
+            List<String> expected = new ArrayList<>(parsed.get(comics.comicAt(comic)));
+            expected.sort(null);
+            assertEquals(expected, cast);
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void comicGraphUnknownCharacter() {
+        MarvelPaths.findPath(ComicGraph.fromFile("nflPlayers.csv"), "TOM-BRADY", "MARSHAWN-LYNCH");
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void comicGraphNullCharacter() {
+        MarvelPaths.findPath(ComicGraph.fromFile("nflPlayers.csv"), null, "TOM-BRADY");
+    }
+
 }
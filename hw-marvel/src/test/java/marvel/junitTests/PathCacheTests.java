@@ -0,0 +1,152 @@
+package marvel.junitTests;
+
+import graph.Graph;
+import marvel.MarvelPaths;
+import marvel.PathCache;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests PathCache
+ */
+public class PathCacheTests {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+    private Graph<String, String> graph1;
+
+    @Before
+    public void buildGraph() {
+        graph1 = MarvelPaths.graphCreator("nflPlayers.csv");
+    }
+
+    @Test
+    public void pathsMatchFindPath() {
+        PathCache cache = new PathCache(graph1, 1000);
+        for (int round = 0; round < 2; round++) {
+            for (String char1 : graph1.listNodes()) {
+                for (String char2 : graph1.listNodes()) {
+                    assertEquals(MarvelPaths.findPath(graph1, char1, char2), cache.findPath(char1, char2));
+                }
+            }
+        }
+        int pairs = graph1.totalNodes() * graph1.totalNodes();
+        assertEquals(pairs, cache.misses());
+        assertEquals(pairs, cache.hits());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsDropped() {
+        PathCache cache = new PathCache(graph1, 2);
+        cache.findPath("TOM-BRADY", "GENO-SMITH");
+        cache.findPath("TOM-BRADY", "TOM-BRADY");
+        // asking again makes the first pair the most recently used
+        cache.findPath("TOM-BRADY", "GENO-SMITH");
+        cache.findPath("GENO-SMITH", "TOM-BRADY");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.hits());
+        cache.findPath("TOM-BRADY", "GENO-SMITH");
+        assertEquals(2, cache.hits());
+        cache.findPath("TOM-BRADY", "TOM-BRADY");
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    public void changeDropsPaths() {
+        PathCache cache = new PathCache(graph1, 10);
+        List<Graph.Edge<String, String>> before = cache.findPath("TOM-BRADY", "GENO-SMITH");
+        assertEquals(1, cache.size());
+        graph1.addNode("NEW-PLAYER");
+        assertEquals(0, cache.size());
+        graph1.addEdge("TOM-BRADY", "NEW-PLAYER", "NEW-TEAM");
+        graph1.addEdge("NEW-PLAYER", "GENO-SMITH", "NEW-TEAM");
+        List<Graph.Edge<String, String>> after = cache.findPath("TOM-BRADY", "GENO-SMITH");
+        assertEquals(MarvelPaths.findPath(graph1, "TOM-BRADY", "GENO-SMITH"), after);
+        assertTrue(after.size() < before.size());
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void reversedPathsAreReused() {
+        PathCache cache = new PathCache(graph1, 10, true);
+        List<Graph.Edge<String, String>> forward = cache.findPath("TOM-BRADY", "GENO-SMITH");
+        List<Graph.Edge<String, String>> backward = cache.findPath("GENO-SMITH", "TOM-BRADY");
+        assertEquals(1, cache.hits());
+        assertEquals(forward.size(), backward.size());
+        for (int i = 0; i < forward.size(); i++) {
+            Graph.Edge<String, String> edge = forward.get(forward.size() - 1 - i);
+            assertEquals(new Graph.Edge<>(edge.getChild(), edge.getParent(), edge.getLabel()), backward.get(i));
+        }
+    }
+
+    @Test
+    public void oneWayPathsAreNotReversed() {
+        Graph<String, String> directed = new Graph<>();
+        directed.addNode("a");
+        directed.addNode("b");
+        directed.addEdge("a", "b", "label");
+        directed.addEdge("b", "a", "other");
+        PathCache cache = new PathCache(directed, 10, true);
+        cache.findPath("a", "b");
+        assertEquals("other", cache.findPath("b", "a").get(0).getLabel());
+        assertEquals(0, cache.hits());
+    }
+
+    @Test
+    public void sharedBetweenThreads() throws Exception {
+        PathCache cache = new PathCache(graph1, 50);
+        List<String> nodes = new ArrayList<>(graph1.listNodes());
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                results.add(pool.submit(() -> {
+                    for (String char1 : nodes) {
+                        for (String char2 : nodes) {
+                            List<Graph.Edge<String, String>> expected = MarvelPaths.findPath(graph1, char1, char2);
+                            if (!(Objects.equals(expected, cache.findPath(char1, char2)))) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8L * nodes.size() * nodes.size(), cache.hits() + cache.misses());
+        assertTrue(cache.size() <= 50);
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void pathsAreUnmodifiable() {
+        new PathCache(graph1, 10).findPath("TOM-BRADY", "GENO-SMITH").clear();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void unknownCharacter() {
+        new PathCache(graph1, 10).findPath("TOM-BRADY", "SPIDER-MAN");
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void zeroCapacity() {
+        new PathCache(graph1, 0);
+    }
+
+}
@@ -233,12 +233,12 @@ public class MarvelTestDriver {
     private void findPath(String graphName, String char1, String char2) {
         Graph<String, String> graph = graphs.get(graphName);
         try {
-            List<Graph<String, String>.Edge> path = MarvelPaths.findPath(graph, char1, char2);
+            List<Graph.Edge<String, String>> path = MarvelPaths.findPath(graph, char1, char2);
             output.println("path from " + char1 + " to " + char2 + ":");
             if (path == null) {
                 output.println("no path found");
             } else {
-                for (Graph<String, String>.Edge edge : path) {
+                for (Graph.Edge<String, String> edge : path) {
                     output.println(edge.getParent() + " to " + edge.getChild() +
                             " via " + edge.getLabel());
                 }
@@ -0,0 +1,78 @@
+package pathfinder;
+
+import graph.WeightedGraph;
+import pathfinder.datastructures.Path;
+
+import java.util.Arrays;
+
+/**
+ * Not an ADT.
+ * Implements A* search to find the shortest Path between two separate nodes. Like
+ * Dijkstra, but the node taken next is the one with the lowest known cost plus the
+ * estimated cost from it to the destination, so the search heads for the destination
+ * instead of spreading out evenly in every direction.
+ */
+public class AStar {
+
+    /**
+     * Finds the shortest path between two nodes (start and dest) of a WeightedGraph
+     * using A* search. Returns a path with the same cost as Dijkstra.findPath as long as
+     * heuristic never overestimates; with a consistent heuristic, each node is settled
+     * at most once.
+     * @param graph graph to search for path
+     * @param start node the search will start at
+     * @param dest node the search will end at
+     * @param heuristic estimates the cost from a node to dest
+     * @param <T> the type of node
+     * @return the path object representing the shortest path from start to dest, including
+     * the cost, or null if there is no path
+     * @throws IllegalArgumentException if any argument is null or start or dest is not in graph
+     */
+    public static <T> Path<T> findPath(WeightedGraph<T> graph, T start, T dest, Heuristic<? super T> heuristic) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        } else if (start == null) {
+            throw new IllegalArgumentException("Starting node cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("Destination node cannot be null");
+        } else if (heuristic == null) {
+            throw new IllegalArgumentException("Heuristic cannot be null");
+        } else if (!(graph.containsNode(start))) {
+            throw new IllegalArgumentException("Graph doesn't contain starting node");
+        } else if (!(graph.containsNode(dest))) {
+            throw new IllegalArgumentException("Graph doesn't contain destination node");
+        }
+        int source = graph.idOf(start);
+        int target = graph.idOf(dest);
+        // Best known cost to each node and the edge used to reach it
+        double[] dist = new double[graph.totalNodes()];
+        int[] prevEdge = new int[graph.totalNodes()];
+        int[] prevNode = new int[graph.totalNodes()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        prevEdge[source] = -1;
+        // Keyed by known cost plus estimated cost. A node that is reached for less after
+        // it left the heap is put back, which only happens if the heuristic is not
+        // consistent
+        IndexedMinHeap active = new IndexedMinHeap(graph.totalNodes());
+        active.offer(source, heuristic.estimate(start, dest));
+        while (!(active.isEmpty())) {
+            int minNode = active.poll();
+            if (minNode == target) {
+                return Dijkstra.buildPath(graph, start, target, prevNode, prevEdge);
+            }
+            for (int e = graph.edgeStart(minNode); e < graph.edgeEnd(minNode); e++) {
+                int child = graph.target(e);
+                double cost = dist[minNode] + graph.weight(e);
+                if (cost < dist[child]) {
+                    dist[child] = cost;
+                    prevNode[child] = minNode;
+                    prevEdge[child] = e;
+                    active.offer(child, cost + heuristic.estimate(graph.nodeAt(child), dest));
+                }
+            }
+        }
+        // If not found, return null
+        return null;
+    }
+}
@@ -12,12 +12,20 @@
 package pathfinder;
 
 import graph.Graph;
+import graph.GraphCodec;
+import graph.GraphFile;
+import graph.ImmutableGraph;
+import graph.WeightedGraph;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 import pathfinder.parser.CampusBuilding;
 import pathfinder.parser.CampusPath;
 import pathfinder.parser.CampusPathsParser;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,9 +36,26 @@ import java.util.Map;
  * find the shortest path between two buildings in the map.
  */
 public class CampusMap implements ModelAPI {
+    // Stores a point of a graph file as its two coordinates
+    private static final GraphCodec<Point> POINT_CODEC = new GraphCodec<Point>() {
+        @Override
+        public void write(DataOutput out, Point value) throws IOException {
+            out.writeDouble(value.getX());
+            out.writeDouble(value.getY());
+        }
+
+        @Override
+        public Point read(ByteBuffer in) {
+            return new Point(in.getDouble(), in.getDouble());
+        }
+    };
     private Map<String, String> buildingNames;
     private Map<String, Point> buildCords;
     private Graph<Point, Double> campusGraph;
+    // Contraction hierarchy of the paths that route queries search. Rebuilt and replaced
+    // as a whole after every change, so route queries running on other threads always
+    // search one consistent version of the map
+    private volatile ContractionHierarchy<Point> campusRoutes;
 
 
     /**
@@ -40,16 +65,10 @@ public class CampusMap implements ModelAPI {
      */
     public CampusMap() {
         this.campusGraph = new Graph<>();
-        this.buildingNames = new HashMap<>();
-        this.buildCords = new HashMap<>();
         // Load data
-        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        loadBuildings();
         List<CampusPath> paths = CampusPathsParser.parseCampusPaths("campus_paths.csv");
-        // loop over building data to store them
-        for (CampusBuilding building : buildings) {
-            Point bCoordinates = new Point(building.getX(), building.getY());
-            this.buildingNames.put(building.getShortName(), building.getLongName());
-            this.buildCords.put(building.getShortName(), bCoordinates);
+        for (Point bCoordinates : this.buildCords.values()) {
             this.campusGraph.addNode(bCoordinates);
         }
         // loop over path data to store them
@@ -64,6 +83,61 @@ public class CampusMap implements ModelAPI {
             }
             this.campusGraph.addEdge(start, dest, path.getDistance());
         }
+        // Route queries run on a hierarchy built from an unboxed copy of the finished graph
+        this.campusRoutes = ContractionHierarchy.of(WeightedGraph.of(this.campusGraph));
+    }
+
+    /**
+     * Initializes the campus map from a graph file written by saveGraph instead of the
+     * path csv file. The building data is still loaded from its csv file.
+     * @param graphFile the graph file to load the paths from
+     * @throws IllegalArgumentException if graphFile is null or can't be read
+     */
+    public CampusMap(String graphFile) {
+        if (graphFile == null) {
+            throw new IllegalArgumentException("graphFile cannot be null");
+        }
+        ImmutableGraph<Point, Double> paths;
+        try {
+            paths = GraphFile.load(Paths.get(graphFile), POINT_CODEC, GraphCodec.doubles());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read graph file: " + graphFile, e);
+        }
+        loadBuildings();
+        this.campusGraph = paths.toGraph();
+        this.campusRoutes = ContractionHierarchy.of(WeightedGraph.ofFrozen(paths));
+    }
+
+    /**
+     * Saves the paths of the campus map, with any closed paths left out, to a graph
+     * file that CampusMap(String) can load
+     * @param graphFile the file to write, replaced if it exists
+     * @throws IllegalArgumentException if graphFile is null or can't be written
+     */
+    public synchronized void saveGraph(String graphFile) {
+        if (graphFile == null) {
+            throw new IllegalArgumentException("graphFile cannot be null");
+        }
+        try {
+            GraphFile.write(this.campusGraph.freeze(), Paths.get(graphFile), POINT_CODEC, GraphCodec.doubles());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write graph file: " + graphFile, e);
+        }
+    }
+
+    /**
+     * Loads the building names and coordinates from the building csv file
+     */
+    private void loadBuildings() {
+        this.buildingNames = new HashMap<>();
+        this.buildCords = new HashMap<>();
+        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        // loop over building data to store them
+        for (CampusBuilding building : buildings) {
+            Point bCoordinates = new Point(building.getX(), building.getY());
+            this.buildingNames.put(building.getShortName(), building.getLongName());
+            this.buildCords.put(building.getShortName(), bCoordinates);
+        }
     }
 
     /**
@@ -97,6 +171,34 @@ public class CampusMap implements ModelAPI {
         return new HashMap<>(this.buildingNames);
     }
 
+    /**
+     * Closes the path segment between two points, in both directions, so that routes
+     * found afterwards avoid it. The rest of the map is kept as is. Route queries that
+     * run at the same time keep using the map as it was until the closure is done.
+     * @param start one end of the closed path segment
+     * @param dest the other end of the closed path segment
+     * @return true if a path segment was closed, false if there was none between the points
+     * @throws IllegalArgumentException if start or dest is null or not a point on the map
+     */
+    public synchronized boolean closePath(Point start, Point dest) {
+        if (start == null || dest == null) {
+            throw new IllegalArgumentException("Points cannot be null");
+        } else if (!(this.campusGraph.containsNode(start)) || !(this.campusGraph.containsNode(dest))) {
+            throw new IllegalArgumentException("Point is not on the campus map");
+        }
+        boolean closed = false;
+        for (Double distance : this.campusGraph.getLabel(start, dest)) {
+            closed |= this.campusGraph.removeEdge(start, dest, distance);
+        }
+        for (Double distance : this.campusGraph.getLabel(dest, start)) {
+            closed |= this.campusGraph.removeEdge(dest, start, distance);
+        }
+        if (closed) {
+            this.campusRoutes = ContractionHierarchy.of(WeightedGraph.of(this.campusGraph));
+        }
+        return closed;
+    }
+
     @Override
     public Path<Point> findShortestPath(String startShortName, String endShortName) {
         if (startShortName == null) {
@@ -110,7 +212,7 @@ public class CampusMap implements ModelAPI {
         } else if (!(shortNameExists(startShortName)) && (!(shortNameExists(endShortName)))) {
             throw new IllegalArgumentException("Given names do not exist");
         } else {
-            return Dijkstra.findPath(this.campusGraph, buildCords.get(startShortName), buildCords.get(endShortName));
+            return this.campusRoutes.findPath(buildCords.get(startShortName), buildCords.get(endShortName));
         }
     }
 }
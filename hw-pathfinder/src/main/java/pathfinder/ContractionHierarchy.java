@@ -0,0 +1,524 @@
+package pathfinder;
+
+import graph.WeightedGraph;
+import pathfinder.datastructures.Path;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ContractionHierarchy is an immutable index of a WeightedGraph for answering shortest
+ * path queries much faster than Dijkstra, for graphs that are searched many times
+ * between changes. It is built by ranking the nodes and removing ("contracting") them
+ * one at a time from lowest rank up; whenever removing a node would make the shortest
+ * path between two of its neighbors longer, a shortcut edge between those neighbors
+ * with the cost of the path through the node is added. A query then runs a Dijkstra
+ * search from each end that only follows edges up to higher ranked nodes, and those
+ * searches meet at the highest node of a shortest path after settling only a few
+ * nodes. Every shortcut remembers the node it skips, so the path found is expanded
+ * back into the edges of the graph. The graph must not have negative weights.
+ */
+public final class ContractionHierarchy<T> {
+    // How many nodes a witness search may settle before it gives up and a shortcut is
+    // added. Giving up early never makes a query wrong, it only adds shortcuts.
+    private static final int WITNESS_SETTLE_LIMIT = 200;
+    private final WeightedGraph<T> graph;
+    private final int[] rank;
+    // Every edge of the hierarchy, original or shortcut, by edge id
+    private final int[] from;
+    private final int[] to;
+    private final double[] cost;
+    private final int[] middle;
+    // Edge ids of the edges leaving each node to a higher ranked node, and of the edges
+    // entering each node from a higher ranked node, grouped by node
+    private final int[] upOffsets;
+    private final int[] upEdges;
+    private final int[] downOffsets;
+    private final int[] downEdges;
+    // The arrays of a query, kept for the next query on the same thread
+    private final ThreadLocal<Search> searches;
+
+    // Rep Invariant:
+    // every field != null
+    // rank is a permutation of [0, graph.totalNodes())
+    // from, to, cost and middle have the same length; from[e] != to[e], cost[e] >= 0
+    // and middle[e] is -1 or a node ranked below both from[e] and to[e]
+    // if middle[e] != -1, there are edges from from[e] to middle[e] and from middle[e]
+    // to to[e] whose costs add up to cost[e]
+    // if middle[e] == -1, graph has an edge from from[e] to to[e] of weight cost[e]
+    // upOffsets and downOffsets have length graph.totalNodes() + 1, start at 0, never
+    // decrease, and end at upEdges.length and downEdges.length
+    // the edges of node u in upEdges are the edges e with from[e] == u and
+    // rank[to[e]] > rank[u]; those in downEdges are the edges e with to[e] == u and
+    // rank[from[e]] > rank[u]; each edge is in exactly one of them
+    // there is at most one edge from any node to any other
+    //
+    // Abstract Function:
+    // ContractionHierarchy h represents the shortest paths of graph. For any two nodes
+    // s and t with a path between them, some shortest path goes up from s through
+    // edges of upEdges to a node m, then down to t through edges of downEdges, and
+    // expanding each edge e of it into the edges from[e] to middle[e] and middle[e] to
+    // to[e], until none has a middle node, gives a shortest path of graph.
+
+    private ContractionHierarchy(WeightedGraph<T> graph, int[] rank, List<Map<Integer, Edge>> out) {
+        int nodes = graph.totalNodes();
+        int total = 0;
+        for (Map<Integer, Edge> edges : out) {
+            total += edges.size();
+        }
+        this.graph = graph;
+        this.rank = rank;
+        this.from = new int[total];
+        this.to = new int[total];
+        this.cost = new double[total];
+        this.middle = new int[total];
+        this.upOffsets = new int[nodes + 1];
+        this.downOffsets = new int[nodes + 1];
+        int id = 0;
+        for (int u = 0; u < nodes; u++) {
+            for (Map.Entry<Integer, Edge> edge : out.get(u).entrySet()) {
+                int w = edge.getKey();
+                this.from[id] = u;
+                this.to[id] = w;
+                this.cost[id] = edge.getValue().cost;
+                this.middle[id] = edge.getValue().middle;
+                if (rank[u] < rank[w]) {
+                    this.upOffsets[u + 1]++;
+                } else {
+                    this.downOffsets[w + 1]++;
+                }
+                id++;
+            }
+        }
+        for (int u = 0; u < nodes; u++) {
+            this.upOffsets[u + 1] += this.upOffsets[u];
+            this.downOffsets[u + 1] += this.downOffsets[u];
+        }
+        this.upEdges = new int[this.upOffsets[nodes]];
+        this.downEdges = new int[this.downOffsets[nodes]];
+        int[] upFilled = Arrays.copyOf(this.upOffsets, nodes);
+        int[] downFilled = Arrays.copyOf(this.downOffsets, nodes);
+        for (int e = 0; e < total; e++) {
+            if (rank[this.from[e]] < rank[this.to[e]]) {
+                this.upEdges[upFilled[this.from[e]]++] = e;
+            } else {
+                this.downEdges[downFilled[this.to[e]]++] = e;
+            }
+        }
+        this.searches = ThreadLocal.withInitial(() -> new Search(nodes));
+        checkRep();
+    }
+
+    /**
+     * Builds a contraction hierarchy of graph. Takes much longer than one Dijkstra
+     * search, so it pays off when graph is searched many times.
+     * @param graph the graph to index
+     * @param <T> the type of node
+     * @return a hierarchy whose queries find shortest paths of graph
+     * @spec.requires no edge of graph has a negative weight
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static <T> ContractionHierarchy<T> of(WeightedGraph<T> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        Contraction contraction = new Contraction(graph);
+        int[] rank = contraction.contractAll();
+        return new ContractionHierarchy<>(graph, rank, contraction.out);
+    }
+
+    /**
+     * Returns the number of edges of the hierarchy, the edges of the graph plus the
+     * shortcuts, with parallel edges counted once
+     * @return the number of edges in the hierarchy
+     */
+    public int totalEdges() {
+        return this.from.length;
+    }
+
+    /**
+     * Finds the shortest path between two nodes (start and dest) of the graph of this
+     * hierarchy. Returns a path with the same cost as Dijkstra.findPath on that graph.
+     * Safe to call from several threads at once.
+     * @param start node the search will start at
+     * @param dest node the search will end at
+     * @return the path object representing the shortest path from start to dest, including
+     * the cost, or null if there is no path
+     * @throws IllegalArgumentException if start or dest is null or not in the graph
+     */
+    public Path<T> findPath(T start, T dest) {
+        if (start == null) {
+            throw new IllegalArgumentException("Starting node cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("Destination node cannot be null");
+        } else if (!(this.graph.containsNode(start))) {
+            throw new IllegalArgumentException("Graph doesn't contain starting node");
+        } else if (!(this.graph.containsNode(dest))) {
+            throw new IllegalArgumentException("Graph doesn't contain destination node");
+        }
+        int source = this.graph.idOf(start);
+        int target = this.graph.idOf(dest);
+        Search search = this.searches.get();
+        search.reach(source, true, 0, -1);
+        search.reach(target, false, 0, -1);
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        while (true) {
+            // a side stops once nothing it has left can lead to a cheaper path
+            boolean upDone = search.activeUp.isEmpty()
+                    || search.activeUp.key(search.activeUp.peek()) >= best;
+            boolean downDone = search.activeDown.isEmpty()
+                    || search.activeDown.key(search.activeDown.peek()) >= best;
+            if (upDone && downDone) {
+                break;
+            }
+            boolean up = !(upDone) && (downDone
+                    || search.activeUp.key(search.activeUp.peek()) <= search.activeDown.key(search.activeDown.peek()));
+            int node = up ? search.activeUp.poll() : search.activeDown.poll();
+            if (search.distUp[node] + search.distDown[node] < best) {
+                best = search.distUp[node] + search.distDown[node];
+                meet = node;
+            }
+            if (up) {
+                for (int i = this.upOffsets[node]; i < this.upOffsets[node + 1]; i++) {
+                    int e = this.upEdges[i];
+                    search.reach(this.to[e], true, search.distUp[node] + this.cost[e], e);
+                }
+            } else {
+                for (int i = this.downOffsets[node]; i < this.downOffsets[node + 1]; i++) {
+                    int e = this.downEdges[i];
+                    search.reach(this.from[e], false, search.distDown[node] + this.cost[e], e);
+                }
+            }
+        }
+        // the edges from source up to meet, then from meet down to target
+        Deque<Integer> edges = new ArrayDeque<>();
+        if (meet != -1) {
+            for (int e = search.prevUp[meet]; e != -1; e = search.prevUp[this.from[e]]) {
+                edges.push(e);
+            }
+            for (int e = search.prevDown[meet]; e != -1; e = search.prevDown[this.to[e]]) {
+                edges.addLast(e);
+            }
+        }
+        search.reset();
+        if (meet == -1) {
+            // If not found, return null
+            return null;
+        }
+        return unpack(start, edges);
+    }
+
+    /**
+     * Returns the path from start along the given hierarchy edges, with every shortcut
+     * replaced by the edges it skips
+     */
+    private Path<T> unpack(T start, Deque<Integer> edges) {
+        Path<T> path = new Path<>(start);
+        // expanded with a stack rather than recursion, since shortcuts can nest deeply
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int edge : edges) {
+            pending.push(edge);
+            while (!(pending.isEmpty())) {
+                int e = pending.pop();
+                if (this.middle[e] == -1) {
+                    path = path.extend(this.graph.nodeAt(this.to[e]), this.cost[e]);
+                } else {
+                    // the second half goes first, so the first half is expanded first
+                    pending.push(edgeBetween(this.middle[e], this.to[e]));
+                    pending.push(edgeBetween(this.from[e], this.middle[e]));
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Returns the id of the edge from u to w, which is stored with the lower ranked of
+     * the two
+     */
+    private int edgeBetween(int u, int w) {
+        if (this.rank[u] < this.rank[w]) {
+            for (int i = this.upOffsets[u]; i < this.upOffsets[u + 1]; i++) {
+                if (this.to[this.upEdges[i]] == w) {
+                    return this.upEdges[i];
+                }
+            }
+        } else {
+            for (int i = this.downOffsets[w]; i < this.downOffsets[w + 1]; i++) {
+                if (this.from[this.downEdges[i]] == u) {
+                    return this.downEdges[i];
+                }
+            }
+        }
+        throw new IllegalStateException("Shortcut skips a missing edge");
+    }
+
+    private void checkRep() {
+        assert (this.graph != null && this.rank != null) : "graph and ranks can't be null";
+        assert (this.rank.length == this.graph.totalNodes()) : "every node needs a rank";
+        assert (this.from.length == this.to.length && this.from.length == this.cost.length
+                && this.from.length == this.middle.length) : "edge arrays must have the same length";
+        assert (this.upEdges.length + this.downEdges.length == this.from.length)
+                : "every edge is stored with exactly one of its ends";
+    }
+
+    /**
+     * The state of one query: the best known cost from the start and to the destination
+     * of each node reached, the edge it was reached by, and the nodes each side has left
+     * to settle. Only the nodes a query reaches are reset after it, so a query costs
+     * time for the part of the hierarchy it searches rather than for the whole graph.
+     */
+    private static final class Search {
+        private final double[] distUp;
+        private final double[] distDown;
+        private final int[] prevUp;
+        private final int[] prevDown;
+        private final IndexedMinHeap activeUp;
+        private final IndexedMinHeap activeDown;
+        private final List<Integer> touched = new ArrayList<>();
+
+        Search(int nodes) {
+            this.distUp = new double[nodes];
+            this.distDown = new double[nodes];
+            this.prevUp = new int[nodes];
+            this.prevDown = new int[nodes];
+            Arrays.fill(this.distUp, Double.POSITIVE_INFINITY);
+            Arrays.fill(this.distDown, Double.POSITIVE_INFINITY);
+            this.activeUp = new IndexedMinHeap(nodes);
+            this.activeDown = new IndexedMinHeap(nodes);
+        }
+
+        /**
+         * Records that node was reached by edge at the given cost from the start if up,
+         * or to the destination if not, unless it was already reached for no more
+         */
+        void reach(int node, boolean up, double cost, int edge) {
+            double[] dist = up ? this.distUp : this.distDown;
+            if (cost < dist[node]) {
+                if (this.distUp[node] == Double.POSITIVE_INFINITY
+                        && this.distDown[node] == Double.POSITIVE_INFINITY) {
+                    this.touched.add(node);
+                }
+                dist[node] = cost;
+                (up ? this.prevUp : this.prevDown)[node] = edge;
+                (up ? this.activeUp : this.activeDown).offer(node, cost);
+            }
+        }
+
+        /**
+         * Forgets every node reached, ready for the next query
+         */
+        void reset() {
+            for (int node : this.touched) {
+                this.distUp[node] = Double.POSITIVE_INFINITY;
+                this.distDown[node] = Double.POSITIVE_INFINITY;
+            }
+            this.touched.clear();
+            while (!(this.activeUp.isEmpty())) {
+                this.activeUp.poll();
+            }
+            while (!(this.activeDown.isEmpty())) {
+                this.activeDown.poll();
+            }
+        }
+    }
+
+    /**
+     * An edge of the hierarchy while it is built: its cost and the node a shortcut
+     * skips, -1 for an edge of the graph. Shared by the out map of its start and the
+     * in map of its end, and only changed to a cheaper cost.
+     */
+    private static final class Edge {
+        private double cost;
+        private int middle;
+
+        Edge(double cost, int middle) {
+            this.cost = cost;
+            this.middle = middle;
+        }
+    }
+
+    /**
+     * The state of contracting a graph: the edges between nodes not contracted yet, plus
+     * every edge of a contracted node, and what the witness searches reuse.
+     */
+    private static final class Contraction {
+        private final int nodes;
+        private final List<Map<Integer, Edge>> out;
+        private final List<Map<Integer, Edge>> in;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        // Witness search state, reset after every search so it is only allocated once
+        private final double[] witnessDist;
+        private final List<Integer> touched = new ArrayList<>();
+        private final IndexedMinHeap witnessQueue;
+
+        /**
+         * Loads the edges of graph, keeping the cheapest of parallel edges and leaving
+         * out edges from a node to itself, which are never on a shortest path
+         */
+        Contraction(WeightedGraph<?> graph) {
+            this.nodes = graph.totalNodes();
+            this.out = new ArrayList<>(this.nodes);
+            this.in = new ArrayList<>(this.nodes);
+            for (int u = 0; u < this.nodes; u++) {
+                this.out.add(new HashMap<>());
+                this.in.add(new HashMap<>());
+            }
+            this.contracted = new boolean[this.nodes];
+            this.contractedNeighbors = new int[this.nodes];
+            this.witnessDist = new double[this.nodes];
+            Arrays.fill(this.witnessDist, Double.POSITIVE_INFINITY);
+            this.witnessQueue = new IndexedMinHeap(this.nodes);
+            for (int u = 0; u < this.nodes; u++) {
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    if (graph.target(e) != u) {
+                        addEdge(u, graph.target(e), graph.weight(e), -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Contracts every node, the one whose removal adds the fewest edges first
+         * @return the rank of each node, the order it was contracted in
+         */
+        int[] contractAll() {
+            IndexedMinHeap order = new IndexedMinHeap(this.nodes);
+            for (int v = 0; v < this.nodes; v++) {
+                order.offer(v, priority(v));
+            }
+            int[] rank = new int[this.nodes];
+            int next = 0;
+            while (!(order.isEmpty())) {
+                int v = order.poll();
+                // priorities go stale as neighbors are contracted, so each is checked
+                // again before it is used and put back if another node now comes first
+                double current = priority(v);
+                if (!(order.isEmpty()) && current > order.key(order.peek())) {
+                    order.offer(v, current);
+                    continue;
+                }
+                shortcuts(v, true);
+                this.contracted[v] = true;
+                rank[v] = next++;
+                for (int neighbor : this.out.get(v).keySet()) {
+                    this.contractedNeighbors[neighbor]++;
+                }
+                for (int neighbor : this.in.get(v).keySet()) {
+                    this.contractedNeighbors[neighbor]++;
+                }
+            }
+            return rank;
+        }
+
+        /**
+         * Returns how much contracting v would grow the graph: the shortcuts it needs,
+         * less the edges it removes, plus the neighbors of v already contracted, which
+         * spreads contraction evenly over the graph
+         */
+        private double priority(int v) {
+            int removed = 0;
+            for (int neighbor : this.out.get(v).keySet()) {
+                removed += this.contracted[neighbor] ? 0 : 1;
+            }
+            for (int neighbor : this.in.get(v).keySet()) {
+                removed += this.contracted[neighbor] ? 0 : 1;
+            }
+            return shortcuts(v, false) - removed + this.contractedNeighbors[v];
+        }
+
+        /**
+         * Counts, and if add is true adds, the shortcuts needed to remove v: one from u
+         * to w for every pair of neighbors where the path through v is shorter than any
+         * path around it that the witness search finds
+         */
+        private int shortcuts(int v, boolean add) {
+            int count = 0;
+            for (Map.Entry<Integer, Edge> inEdge : this.in.get(v).entrySet()) {
+                int u = inEdge.getKey();
+                if (this.contracted[u]) {
+                    continue;
+                }
+                double limit = -1;
+                for (Map.Entry<Integer, Edge> outEdge : this.out.get(v).entrySet()) {
+                    if (!(this.contracted[outEdge.getKey()]) && outEdge.getKey() != u) {
+                        limit = Math.max(limit, inEdge.getValue().cost + outEdge.getValue().cost);
+                    }
+                }
+                if (limit < 0) {
+                    continue;
+                }
+                witnessSearch(u, v, limit);
+                for (Map.Entry<Integer, Edge> outEdge : this.out.get(v).entrySet()) {
+                    int w = outEdge.getKey();
+                    double through = inEdge.getValue().cost + outEdge.getValue().cost;
+                    if (!(this.contracted[w]) && w != u && !(this.witnessDist[w] <= through)) {
+                        count++;
+                        if (add) {
+                            addEdge(u, w, through, v);
+                        }
+                    }
+                }
+                for (int touchedNode : this.touched) {
+                    this.witnessDist[touchedNode] = Double.POSITIVE_INFINITY;
+                }
+                this.touched.clear();
+            }
+            return count;
+        }
+
+        /**
+         * Runs a Dijkstra search from source over the nodes not contracted yet, other
+         * than avoid, until it passes limit or settles WITNESS_SETTLE_LIMIT nodes,
+         * leaving the cost of some path to each node it reached in witnessDist
+         */
+        private void witnessSearch(int source, int avoid, double limit) {
+            this.witnessDist[source] = 0;
+            this.touched.add(source);
+            this.witnessQueue.offer(source, 0);
+            int settled = 0;
+            while (!(this.witnessQueue.isEmpty())) {
+                int node = this.witnessQueue.poll();
+                if (this.witnessDist[node] > limit || ++settled > WITNESS_SETTLE_LIMIT) {
+                    break;
+                }
+                for (Map.Entry<Integer, Edge> edge : this.out.get(node).entrySet()) {
+                    int child = edge.getKey();
+                    double reached = this.witnessDist[node] + edge.getValue().cost;
+                    if (child != avoid && !(this.contracted[child]) && reached < this.witnessDist[child]) {
+                        if (this.witnessDist[child] == Double.POSITIVE_INFINITY) {
+                            this.touched.add(child);
+                        }
+                        this.witnessDist[child] = reached;
+                        this.witnessQueue.offer(child, reached);
+                    }
+                }
+            }
+            while (!(this.witnessQueue.isEmpty())) {
+                this.witnessQueue.poll();
+            }
+        }
+
+        /**
+         * Adds an edge from u to w, or lowers the cost of the one already there
+         */
+        private void addEdge(int u, int w, double cost, int middle) {
+            Edge edge = this.out.get(u).get(w);
+            if (edge == null) {
+                edge = new Edge(cost, middle);
+                this.out.get(u).put(w, edge);
+                this.in.get(w).put(u, edge);
+            } else if (cost < edge.cost) {
+                edge.cost = cost;
+                edge.middle = middle;
+            }
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package pathfinder;
 
-import graph.Graph;
+import graph.AbstractGraph;
+import graph.WeightedGraph;
 import pathfinder.datastructures.Path;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Not an ADT.
@@ -14,14 +21,17 @@ public class Dijkstra {
 
     /**
      * Finds the shortest path between two nodes (start and dest) using Dijkstra's
-     * algorithm.
+     * algorithm. Nodes are held in a heap at most once, so the heap never holds more
+     * than the nodes of graph. The graph must not be changed during the search.
      * @param graph graph to search for path
      * @param start node the search will start at
      * @param dest node the search will end at
      * @param <T> the type of node
-     * @return the path object representing the shortest path from start to dest, including the cost
+     * @return the path object representing the shortest path from start to dest, including
+     * the cost, or null if there is no path
+     * @throws IllegalArgumentException if any argument is null or start or dest is not in graph
      */
-    public static <T> Path<T> findPath(Graph<T, Double> graph, T start, T dest) {
+    public static <T> Path<T> findPath(AbstractGraph<T, Double> graph, T start, T dest) {
         if (graph == null) {
             throw new IllegalArgumentException("Graph cannot be null");
         } else if (start == null) {
@@ -32,53 +42,138 @@ public class Dijkstra {
             throw new IllegalArgumentException("Graph doesn't contain starting node");
         } else if (!(graph.containsNode(dest))) {
             throw new IllegalArgumentException("Graph doesn't contain destination node");
-        } else {
-            // Create priority queue to store the active paths. Lowest cost path is in the front
-            PriorityQueue<Path<T>> active = new PriorityQueue<>(new PathComparator<>());
-            // Store the nodes with the shortest path found
-            Set<T> finished = new HashSet<>();
-            active.add(new Path<>(start));
-            // Loop until the priority queue is empty ot destination node has been found
-            while (!(active.isEmpty())) {
-                Path<T> minPath = active.remove();
-                T minDest = minPath.getEnd();
-                // If last node in path is destination node, return the path
-                if (minDest.equals(dest)) {
-                    return minPath;
-                // Skip if last node is processed already
-                } else if (finished.contains(minDest)) {
-                    continue;
+        }
+        // Nodes get int ids in the order they are reached, so the search state is kept in
+        // arrays and an indexed heap, which holds each node at most once
+        Map<T, Integer> ids = new HashMap<>();
+        List<T> nodes = new ArrayList<>();
+        int capacity = graph.totalNodes();
+        // Best known cost to each node, the node it was reached from, and the cost of
+        // the edge it was reached by
+        double[] dist = new double[capacity];
+        int[] prevNode = new int[capacity];
+        double[] prevCost = new double[capacity];
+        boolean[] finished = new boolean[capacity];
+        IndexedMinHeap active = new IndexedMinHeap(capacity);
+        ids.put(start, 0);
+        nodes.add(start);
+        prevNode[0] = -1;
+        active.offer(0, 0);
+        // Loop until the heap is empty or the destination node has been found
+        while (!(active.isEmpty())) {
+            int minNode = active.poll();
+            T minDest = nodes.get(minNode);
+            // If the lowest cost node is the destination node, return the path to it
+            if (minDest.equals(dest)) {
+                List<Integer> reversed = new ArrayList<>();
+                for (int node = minNode; prevNode[node] != -1; node = prevNode[node]) {
+                    reversed.add(node);
                 }
-                // Loop over edges of the last node in the path
-                for (Graph<T, Double>.Edge edge : graph.listEdges(minDest)) {
-                    T child = edge.getChild();
-                    double cost = edge.getLabel();
-                    // If child node has been processed, skip it
-                    if (!(finished.contains(child))) {
-                        Path<T> newPath = minPath.extend(child, cost);
-                        active.add(newPath);
-                    }
+                Path<T> path = new Path<>(start);
+                for (int i = reversed.size() - 1; i >= 0; i--) {
+                    int node = reversed.get(i);
+                    path = path.extend(nodes.get(node), prevCost[node]);
                 }
-                // Mark last node as processed
-                finished.add(minDest);
+                return path;
             }
+            finished[minNode] = true;
+            double minCost = dist[minNode];
+            // Loop over edges of the node, without copying them, lowering the cost of
+            // each child that is reached for less than before
+            graph.forEachEdge(minDest, edge -> {
+                T child = edge.getChild();
+                Integer childId = ids.get(child);
+                if (childId == null) {
+                    childId = nodes.size();
+                    ids.put(child, childId);
+                    nodes.add(child);
+                } else if (finished[childId]) {
+                    return;
+                }
+                double cost = minCost + edge.getLabel();
+                if (active.offer(childId, cost)) {
+                    dist[childId] = cost;
+                    prevNode[childId] = minNode;
+                    prevCost[childId] = edge.getLabel();
+                }
+            });
         }
         // If not found, return null
         return null;
     }
 
-    private static class PathComparator<T> implements Comparator<Path<T>> {
-        @Override
-        public int compare(Path<T> path1, Path<T> path2) {
-            double path1Cost = path1.getCost();
-            double path2Cost = path2.getCost();
-            if (path1Cost == path2Cost) {
-                return 0;
-            } else if (path1Cost > path2Cost) {
-                return 1;
-            } else {
-                return -1;
+    /**
+     * Finds the shortest path between two nodes (start and dest) of a WeightedGraph
+     * using Dijkstra's algorithm. Works on int node ids and unboxed weights, so
+     * nothing is boxed or hashed while edges are relaxed.
+     * @param graph graph to search for path
+     * @param start node the search will start at
+     * @param dest node the search will end at
+     * @param <T> the type of node
+     * @return the path object representing the shortest path from start to dest, including
+     * the cost, or null if there is no path
+     * @throws IllegalArgumentException if any argument is null or start or dest is not in graph
+     */
+    public static <T> Path<T> findPath(WeightedGraph<T> graph, T start, T dest) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        } else if (start == null) {
+            throw new IllegalArgumentException("Starting node cannot be null");
+        } else if (dest == null) {
+            throw new IllegalArgumentException("Destination node cannot be null");
+        } else if (!(graph.containsNode(start))) {
+            throw new IllegalArgumentException("Graph doesn't contain starting node");
+        } else if (!(graph.containsNode(dest))) {
+            throw new IllegalArgumentException("Graph doesn't contain destination node");
+        }
+        int source = graph.idOf(start);
+        int target = graph.idOf(dest);
+        // Best known cost to each node and the edge used to reach it
+        double[] dist = new double[graph.totalNodes()];
+        int[] prevEdge = new int[graph.totalNodes()];
+        int[] prevNode = new int[graph.totalNodes()];
+        boolean[] finished = new boolean[graph.totalNodes()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        prevEdge[source] = -1;
+        // Each node is in the heap at most once; reaching it for less lowers its key
+        IndexedMinHeap active = new IndexedMinHeap(graph.totalNodes());
+        active.offer(source, 0);
+        while (!(active.isEmpty())) {
+            int minNode = active.poll();
+            if (minNode == target) {
+                return buildPath(graph, start, target, prevNode, prevEdge);
+            }
+            finished[minNode] = true;
+            for (int e = graph.edgeStart(minNode); e < graph.edgeEnd(minNode); e++) {
+                int child = graph.target(e);
+                double cost = dist[minNode] + graph.weight(e);
+                if (!(finished[child]) && cost < dist[child]) {
+                    dist[child] = cost;
+                    prevNode[child] = minNode;
+                    prevEdge[child] = e;
+                    active.offer(child, cost);
+                }
             }
         }
+        // If not found, return null
+        return null;
+    }
+
+    /**
+     * Rebuilds the path ending at target by following the recorded previous edges back to
+     * the start of the search. Also used by AStar, which records them the same way.
+     */
+    static <T> Path<T> buildPath(WeightedGraph<T> graph, T start, int target,
+                                         int[] prevNode, int[] prevEdge) {
+        Deque<Integer> edges = new ArrayDeque<>();
+        for (int node = target; prevEdge[node] != -1; node = prevNode[node]) {
+            edges.push(prevEdge[node]);
+        }
+        Path<T> path = new Path<>(start);
+        for (int e : edges) {
+            path = path.extend(graph.nodeAt(graph.target(e)), graph.weight(e));
+        }
+        return path;
     }
 }
@@ -0,0 +1,74 @@
+package pathfinder;
+
+import graph.WeightedGraph;
+import pathfinder.datastructures.Point;
+
+/**
+ * A Heuristic estimates the cost of the cheapest path from a node to the destination
+ * of a search, so AStar can look at the nodes that seem closer to the destination
+ * first. AStar returns a shortest path as long as the estimate is never more than the
+ * real cost. It settles each node once, and so does the least work, when the estimate
+ * is also consistent: for every edge from a to b, estimate(a, d) is at most the weight
+ * of the edge plus estimate(b, d).
+ *
+ * @param <T> the type of node
+ */
+@FunctionalInterface
+public interface Heuristic<T> {
+
+    /**
+     * Estimates the cost of the cheapest path from node to dest
+     * @param node the node the path would start at
+     * @param dest the destination of the search
+     * @return a cost that is at least 0 and no more than the cost of any path from node to dest
+     */
+    double estimate(T node, T dest);
+
+    /**
+     * Returns the heuristic that estimates every cost as 0, with which AStar searches
+     * like Dijkstra
+     * @param <T> the type of node
+     * @return a heuristic that always returns 0
+     */
+    static <T> Heuristic<T> zero() {
+        return (node, dest) -> 0;
+    }
+
+    /**
+     * Returns a straight-line heuristic for a graph whose nodes are points: the distance
+     * between the points, times the lowest ratio of edge weight to edge length in graph.
+     * The weights of a map can be in other units than its coordinates, and some edges may
+     * even be shorter than a straight line, so scaling by the lowest ratio is what keeps
+     * the estimate from ever being more than the cost of a path. By the triangle
+     * inequality it is consistent too. Since removing edges can only raise the lowest
+     * ratio, the heuristic also stays correct for graphs made from graph by removing
+     * edges.
+     * @param graph the graph the heuristic is for
+     * @return a consistent straight-line heuristic for graph
+     * @throws IllegalArgumentException if graph is null
+     */
+    static Heuristic<Point> straightLine(WeightedGraph<Point> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        double scale = Double.POSITIVE_INFINITY;
+        for (int id = 0; id < graph.totalNodes(); id++) {
+            Point from = graph.nodeAt(id);
+            for (int e = graph.edgeStart(id); e < graph.edgeEnd(id); e++) {
+                Point to = graph.nodeAt(graph.target(e));
+                double length = Math.hypot(from.getX() - to.getX(), from.getY() - to.getY());
+                if (length > 0) {
+                    scale = Math.min(scale, Math.max(0, graph.weight(e)) / length);
+                }
+            }
+        }
+        // a graph with no edge between two different points has no path to estimate
+        double ratio = scale == Double.POSITIVE_INFINITY ? 0 : scale;
+        return (node, dest) -> {
+            double dx = node.getX() - dest.getX();
+            double dy = node.getY() - dest.getY();
+            // not Math.hypot, which guards against overflow at several times the cost
+            return ratio * Math.sqrt(dx * dx + dy * dy);
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package pathfinder;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * IndexedMinHeap is a binary min-heap of int ids in [0, capacity), each with a double
+ * key. It knows where every id sits in the heap, so the key of an id already in the
+ * heap can be lowered in place instead of adding the id again. A search that lowers
+ * keys this way holds each id at most once, so the heap never grows past the number
+ * of ids and no entry object is made per push.
+ */
+final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size = 0;
+
+    // Rep Invariant:
+    // heap, position and keys != null and have the same length
+    // 0 <= size <= heap.length
+    // heap[0..size) holds distinct ids, and position[heap[i]] == i for every i < size
+    // position[id] == -1 for every id not in heap[0..size)
+    // for every 0 < i < size, heap[(i - 1) / 2] comes before heap[i]: its key is lower,
+    // or the keys are equal and its id is lower
+    //
+    // Abstract Function:
+    // IndexedMinHeap h represents the set of ids in heap[0..size), each with priority
+    // keys[id]. The id with the lowest key, and of those the lowest id, is heap[0].
+
+    /**
+     * Creates an empty heap for ids in [0, capacity)
+     * @param capacity one more than the largest id the heap will hold
+     * @spec.requires capacity >= 0
+     * @spec.effects constructs an empty heap
+     */
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.position, -1);
+        checkRep();
+    }
+
+    /**
+     * Returns true if the heap holds no ids
+     * @return true if the heap is empty
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the number of ids in the heap
+     * @return the number of ids in the heap
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns true if the heap holds id
+     * @param id the id to look for
+     * @spec.requires 0 <= id < capacity
+     * @return true if id is in the heap
+     */
+    boolean contains(int id) {
+        return this.position[id] != -1;
+    }
+
+    /**
+     * Adds id with the given key, or lowers the key of id if it is already in the heap
+     * with a higher key. Takes O(log n) time for a heap of n ids.
+     * @param id the id to add
+     * @param key the priority of id, lower first
+     * @spec.requires 0 <= id < capacity and key is not NaN
+     * @spec.modifies this
+     * @return true if id was added or its key was lowered, false if it already had a key
+     * no higher than key
+     */
+    boolean offer(int id, double key) {
+        int index = this.position[id];
+        if (index == -1) {
+            index = this.size++;
+            this.heap[index] = id;
+            this.position[id] = index;
+        } else if (!(key < this.keys[id])) {
+            return false;
+        }
+        this.keys[id] = key;
+        siftUp(index);
+        checkRep();
+        return true;
+    }
+
+    /**
+     * Removes and returns the id with the lowest key. Takes O(log n) time.
+     * @return the id with the lowest key, the lowest such id if several share it
+     * @spec.modifies this
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int poll() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = this.heap[0];
+        this.position[min] = -1;
+        this.size--;
+        if (this.size > 0) {
+            int last = this.heap[this.size];
+            this.heap[0] = last;
+            this.position[last] = 0;
+            siftDown(0);
+        }
+        checkRep();
+        return min;
+    }
+
+    /**
+     * Returns the id with the lowest key without removing it
+     * @return the id poll() would return next
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int peek() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return this.heap[0];
+    }
+
+    /**
+     * Returns the key id was last given
+     * @param id the id to look up
+     * @spec.requires 0 <= id < capacity and id was offered
+     * @return the key of id
+     */
+    double key(int id) {
+        return this.keys[id];
+    }
+
+    /**
+     * Moves the id at index up until its parent comes before it
+     */
+    private void siftUp(int index) {
+        int id = this.heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!(before(id, this.heap[parent]))) {
+                break;
+            }
+            place(this.heap[parent], index);
+            index = parent;
+        }
+        place(id, index);
+    }
+
+    /**
+     * Moves the id at index down until it comes before both of its children
+     */
+    private void siftDown(int index) {
+        int id = this.heap[index];
+        while (2 * index + 1 < this.size) {
+            int child = 2 * index + 1;
+            if (child + 1 < this.size && before(this.heap[child + 1], this.heap[child])) {
+                child++;
+            }
+            if (!(before(this.heap[child], id))) {
+                break;
+            }
+            place(this.heap[child], index);
+            index = child;
+        }
+        place(id, index);
+    }
+
+    /**
+     * Returns true if id1 comes out of the heap before id2
+     */
+    private boolean before(int id1, int id2) {
+        int compare = Double.compare(this.keys[id1], this.keys[id2]);
+        return compare < 0 || (compare == 0 && id1 < id2);
+    }
+
+    private void place(int id, int index) {
+        this.heap[index] = id;
+        this.position[id] = index;
+    }
+
+    private void checkRep() {
+        assert (this.heap.length == this.position.length && this.heap.length == this.keys.length)
+                : "heap arrays must have the same length";
+        assert (0 <= this.size && this.size <= this.heap.length) : "size must fit the heap";
+    }
+}
@@ -11,7 +11,8 @@
 
 package pathfinder.datastructures;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -24,18 +25,25 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
 
     // AF(this) =
     //      first point in the path => start
-    //      each "step" along the path between points => elements of list path, where
-    //          path.get(0) is the first step from the start point to an intermediate point, and
-    //          path.get(path.size() - 1) is the final step from an intermediate point to the end
+    //      each "step" along the path between points => the steps of prefix, followed by
+    //          last, where the steps of a path with no prefix are empty. The first step goes
+    //          from the start point to an intermediate point, and the final step, last, from
+    //          an intermediate point to the end
     //      total cost along the path => cost
     //      the destination point in this path, opposite the start point => getEnd()
+    //
+    // A path shares its prefix with the path it was extended from, so extending a path
+    // takes constant time and memory however long the path is. The steps are only
+    // gathered into a list, segments, when they are iterated or compared.
 
     // Rep Invariant:
     //      cost >= 0 &&
     //      Double.isFinite(cost) &&
     //      start != null &&
-    //      path != null &&
-    //      path does not contain null elements
+    //      (prefix == null) == (last == null) &&
+    //      length == 0 if prefix == null, otherwise prefix.length + 1 &&
+    //      if prefix != null, prefix.start == start and last.getStart() equals prefix.getEnd() &&
+    //      segments == null or segments lists the steps of this path in order
 
     /**
      * The total cost along all the segments in this path.
@@ -48,9 +56,26 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
     private T start;
 
     /**
-     * The ordered sequence of segments representing a path between points.
+     * The path this path extends by one segment, or null if this path has no segments.
      */
-    private List<Segment> path;
+    private final Path<T> prefix;
+
+    /**
+     * The final segment of this path, or null if this path has no segments.
+     */
+    private final Segment last;
+
+    /**
+     * The number of segments in this path.
+     */
+    private final int length;
+
+    /**
+     * The ordered sequence of segments representing a path between points, or null until
+     * it is first needed. Only ever set to an unmodifiable list, so threads that set it at
+     * the same time each see a complete list.
+     */
+    private List<Segment> segments;
 
     /**
      * Creates a new, empty path containing a start point. Essentially this represents a path
@@ -61,7 +86,25 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
     public Path(T start) {
         this.start = start;
         this.cost = 0;
-        this.path = new ArrayList<>();
+        this.prefix = null;
+        this.last = null;
+        this.length = 0;
+        checkRep();
+    }
+
+    /**
+     * Creates the path made of prefix followed by one more segment.
+     *
+     * @param prefix The path being extended.
+     * @param newEnd The point at the end of the added segment.
+     * @param segmentCost The cost of the added segment.
+     */
+    private Path(Path<T> prefix, T newEnd, double segmentCost) {
+        this.start = prefix.start;
+        this.prefix = prefix;
+        this.last = new Segment(prefix.getEnd(), newEnd, segmentCost);
+        this.length = prefix.length + 1;
+        this.cost = prefix.cost + segmentCost;
         checkRep();
     }
 
@@ -70,7 +113,8 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
      * in this path and terminating at {@code newEnd}. The cost of adding this additional segment
      * to the existing path is {@code segmentCost}. Thus, the returned Path represents a path
      * from {@code this.getStart()} to {@code newEnd}, with a cost of {@code this.getCost() +
-     * segmentCost}.
+     * segmentCost}. Takes constant time: the returned path shares the segments of this path
+     * instead of copying them.
      *
      * @param newEnd      The point being added at the end of the segment being appended to this path
      * @param segmentCost The cost of the segment being added to the end of this path.
@@ -78,16 +122,7 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
      */
     public Path<T> extend(T newEnd, double segmentCost) {
         checkRep();
-        //
-        Path<T> extendedPath = new Path<T>(start);
-        extendedPath.path.addAll(this.path);
-        extendedPath.path.add(new Segment(this.getEnd(), newEnd, segmentCost));
-        extendedPath.cost = this.cost + segmentCost;
-        //
-        extendedPath.checkRep();
-        checkRep();
-        //
-        return extendedPath;
+        return new Path<>(this, newEnd, segmentCost);
     }
 
     /**
@@ -109,10 +144,30 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
      * contains no segments (i.e. this path is from the start point to itself).
      */
     public T getEnd() {
-        if(path.size() == 0) {
+        if(last == null) {
             return start;
         }
-        return path.get(path.size() - 1).getEnd();
+        return last.getEnd();
+    }
+
+    /**
+     * @return The segments of this path in order, gathered from the chain of prefixes the
+     * first time they are needed.
+     */
+    private List<Segment> segments() {
+        List<Segment> list = segments;
+        if(list == null) {
+            @SuppressWarnings("unchecked")
+            Segment[] steps = (Segment[]) new Path<?>.Segment[length];
+            Path<T> current = this;
+            for(int i = length - 1; i >= 0; i--) {
+                steps[i] = current.last;
+                current = current.prefix;
+            }
+            list = Collections.unmodifiableList(Arrays.asList(steps));
+            segments = list;
+        }
+        return list;
     }
 
     /**
@@ -127,7 +182,7 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
         // Create a wrapping iterator to guarantee exceptional behavior on Iterator#remove.
         return new Iterator<Segment>() {
 
-            private Iterator<Segment> backingIterator = path.iterator();
+            private Iterator<Segment> backingIterator = segments().iterator();
 
             @Override
             public boolean hasNext() {
@@ -154,10 +209,9 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
         assert cost >= 0;
         assert Double.isFinite(cost);
         assert start != null;
-        assert path != null;
-        for(Segment segment : path) {
-            assert segment != null;
-        }
+        assert (prefix == null) == (last == null);
+        assert prefix == null ? length == 0 : length == prefix.length + 1;
+        assert prefix == null || last.getStart().equals(prefix.getEnd());
     }
 
     /**
@@ -177,30 +231,35 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
             return false;
         }
         Path<?> other = (Path<?>) obj;
-        if(this.path.size() != other.path.size()) {
+        if(this.length != other.length) {
             return false;
         }
-        if(this.path.size() == 0 && !this.start.equals(other.start)) {
+        if(this.length == 0 && !this.start.equals(other.start)) {
             return false;
         }
-        for(int i = 0; i < this.path.size(); i++) {
-            if(!this.path.get(i).equals(other.path.get(i))) {
+        // compare from the end, stopping early once both paths share the same prefix
+        Path<?> mine = this;
+        Path<?> theirs = other;
+        while(mine != theirs && mine.last != null) {
+            if(!mine.last.equals(theirs.last)) {
                 return false;
             }
+            mine = mine.prefix;
+            theirs = theirs.prefix;
         }
         return true;
     }
 
     @Override
     public int hashCode() {
-        return (31 * start.hashCode()) + path.hashCode();
+        return (31 * start.hashCode()) + segments().hashCode();
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(start.toString());
-        for(Segment segment : path) {
+        for(Segment segment : segments()) {
             sb.append(" =(");
             sb.append(String.format("%.3f", segment.getCost()));
             sb.append(")=> ");
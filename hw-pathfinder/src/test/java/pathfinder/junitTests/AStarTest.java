@@ -0,0 +1,138 @@
+package pathfinder.junitTests;
+
+import graph.Graph;
+import graph.WeightedGraph;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import pathfinder.AStar;
+import pathfinder.Dijkstra;
+import pathfinder.Heuristic;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AStarTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final double EPSILON = 1e-9;
+
+    // The campus paths, loaded once
+    private static WeightedGraph<Point> campus;
+    private static List<Point> points;
+
+    @BeforeClass
+    public static void loadCampus() {
+        Graph<Point, Double> graph = CampusGraphs.readCampusPaths();
+        campus = WeightedGraph.of(graph);
+        points = new ArrayList<>(graph.listNodes());
+    }
+
+    @Test
+    public void testCampusCostsMatchDijkstra() {
+        Heuristic<Point> straightLine = Heuristic.straightLine(campus);
+        Random random = new Random(331);
+        for (int i = 0; i < 300; i++) {
+            Point start = points.get(random.nextInt(points.size()));
+            Point dest = points.get(random.nextInt(points.size()));
+            Path<Point> expected = Dijkstra.findPath(campus, start, dest);
+            Path<Point> path = AStar.findPath(campus, start, dest, straightLine);
+            assertEquals(expected.getCost(), path.getCost(), EPSILON);
+            assertEquals(start, path.getStart());
+            assertEquals(dest, path.getEnd());
+        }
+    }
+
+    @Test
+    public void testStraightLineNeverOverestimates() {
+        Heuristic<Point> straightLine = Heuristic.straightLine(campus);
+        Random random = new Random(332);
+        for (int i = 0; i < 300; i++) {
+            Point start = points.get(random.nextInt(points.size()));
+            Point dest = points.get(random.nextInt(points.size()));
+            assertTrue(straightLine.estimate(start, dest) <= Dijkstra.findPath(campus, start, dest).getCost());
+        }
+    }
+
+    @Test
+    public void testZeroHeuristicMatchesDijkstra() {
+        Random random = new Random(333);
+        for (int i = 0; i < 100; i++) {
+            Point start = points.get(random.nextInt(points.size()));
+            Point dest = points.get(random.nextInt(points.size()));
+            assertEquals(Dijkstra.findPath(campus, start, dest),
+                    AStar.findPath(campus, start, dest, Heuristic.zero()));
+        }
+    }
+
+    @Test
+    public void testCampusBuildingRoutesMatchDijkstra() {
+        Heuristic<Point> straightLine = Heuristic.straightLine(campus);
+        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        for (CampusBuilding from : buildings) {
+            for (CampusBuilding to : buildings.subList(0, 5)) {
+                Point start = new Point(from.getX(), from.getY());
+                Point dest = new Point(to.getX(), to.getY());
+                Path<Point> expected = Dijkstra.findPath(campus, start, dest);
+                Path<Point> route = AStar.findPath(campus, start, dest, straightLine);
+                assertEquals(expected.getCost(), route.getCost(), EPSILON);
+                assertEquals(start, route.getStart());
+                assertEquals(dest, route.getEnd());
+            }
+        }
+    }
+
+    @Test
+    public void testInconsistentHeuristicStillShortest() {
+        // the estimate from b is high enough that c is settled through the long edge
+        // first, then reached again for less through b
+        Graph<String, Double> graph = new Graph<>();
+        for (String node : new String[] {"a", "b", "c", "d"}) {
+            graph.addNode(node);
+        }
+        graph.addEdge("a", "b", 1.0);
+        graph.addEdge("a", "c", 4.0);
+        graph.addEdge("b", "c", 1.0);
+        graph.addEdge("c", "d", 5.0);
+        Heuristic<String> estimate = (node, dest) -> node.equals("b") ? 5.0 : 0.0;
+        Path<String> path = AStar.findPath(WeightedGraph.of(graph), "a", "d", estimate);
+        assertEquals(7.0, path.getCost(), EPSILON);
+        assertEquals(3, countSegments(path));
+    }
+
+    @Test
+    public void testNoPath() {
+        Graph<String, Double> graph = new Graph<>();
+        graph.addNode("a");
+        graph.addNode("b");
+        graph.addEdge("b", "a", 1.0);
+        assertNull(AStar.findPath(WeightedGraph.of(graph), "a", "b", Heuristic.zero()));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullHeuristic() {
+        AStar.findPath(campus, points.get(0), points.get(1), null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testEndNotInGraph() {
+        AStar.findPath(campus, points.get(0), new Point(-1.0, -1.0), Heuristic.zero());
+    }
+
+    private static int countSegments(Path<String> path) {
+        int count = 0;
+        for (Path<String>.Segment ignored : path) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,34 @@
+package pathfinder.junitTests;
+
+import graph.Graph;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+/**
+ * Builds the campus paths graph for the tests that search it
+ */
+final class CampusGraphs {
+    private CampusGraphs() {
+    }
+
+    /**
+     * Returns a new graph of the campus paths, with a node for every end of a path and
+     * an edge for every path, weighted by its distance, like the graph of CampusMap
+     */
+    static Graph<Point, Double> readCampusPaths() {
+        Graph<Point, Double> graph = new Graph<>();
+        for (CampusPath path : CampusPathsParser.parseCampusPaths("campus_paths.csv")) {
+            Point start = new Point(path.getX1(), path.getY1());
+            Point dest = new Point(path.getX2(), path.getY2());
+            if (!(graph.containsNode(start))) {
+                graph.addNode(start);
+            }
+            if (!(graph.containsNode(dest))) {
+                graph.addNode(dest);
+            }
+            graph.addEdge(start, dest, path.getDistance());
+        }
+        return graph;
+    }
+}
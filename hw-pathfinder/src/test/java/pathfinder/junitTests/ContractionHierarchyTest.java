@@ -0,0 +1,165 @@
+package pathfinder.junitTests;
+
+import graph.Graph;
+import graph.WeightedGraph;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import pathfinder.CampusMap;
+import pathfinder.ContractionHierarchy;
+import pathfinder.Dijkstra;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ContractionHierarchyTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final double EPSILON = 1e-9;
+
+    // The campus paths and their hierarchy, built once
+    private static Graph<Point, Double> campusGraph;
+    private static WeightedGraph<Point> campus;
+    private static ContractionHierarchy<Point> hierarchy;
+    private static List<Point> points;
+
+    @BeforeClass
+    public static void loadCampus() {
+        campusGraph = CampusGraphs.readCampusPaths();
+        campus = WeightedGraph.of(campusGraph);
+        hierarchy = ContractionHierarchy.of(campus);
+        points = new ArrayList<>(campusGraph.listNodes());
+    }
+
+    @Test
+    public void testCampusCostsMatchDijkstra() {
+        Random random = new Random(331);
+        for (int i = 0; i < 300; i++) {
+            Point start = points.get(random.nextInt(points.size()));
+            Point dest = points.get(random.nextInt(points.size()));
+            Path<Point> expected = Dijkstra.findPath(campus, start, dest);
+            Path<Point> path = hierarchy.findPath(start, dest);
+            assertEquals(expected.getCost(), path.getCost(), EPSILON);
+            assertFollowsGraph(campusGraph, start, dest, path);
+        }
+    }
+
+    @Test
+    public void testCampusMapRoutesMatchDijkstra() {
+        CampusMap map = new CampusMap();
+        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        for (CampusBuilding from : buildings) {
+            for (CampusBuilding to : buildings.subList(0, 5)) {
+                Point start = new Point(from.getX(), from.getY());
+                Point dest = new Point(to.getX(), to.getY());
+                Path<Point> route = map.findShortestPath(from.getShortName(), to.getShortName());
+                assertEquals(Dijkstra.findPath(campus, start, dest).getCost(), route.getCost(), EPSILON);
+                assertFollowsGraph(campusGraph, start, dest, route);
+            }
+        }
+    }
+
+    @Test
+    public void testClosedPathIsAvoided() {
+        CampusMap map = new CampusMap();
+        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        CampusBuilding from = buildings.get(0);
+        CampusBuilding to = buildings.get(buildings.size() - 1);
+        Path<Point> before = map.findShortestPath(from.getShortName(), to.getShortName());
+        // a segment from the middle of the route, since the ends can be dead ends
+        List<Path<Point>.Segment> segments = new ArrayList<>();
+        before.forEach(segments::add);
+        Path<Point>.Segment closed = segments.get(segments.size() / 2);
+        assertTrue(map.closePath(closed.getStart(), closed.getEnd()));
+
+        Graph<Point, Double> remaining = CampusGraphs.readCampusPaths();
+        for (Double distance : remaining.getLabel(closed.getStart(), closed.getEnd())) {
+            remaining.removeEdge(closed.getStart(), closed.getEnd(), distance);
+        }
+        for (Double distance : remaining.getLabel(closed.getEnd(), closed.getStart())) {
+            remaining.removeEdge(closed.getEnd(), closed.getStart(), distance);
+        }
+        Point start = new Point(from.getX(), from.getY());
+        Point dest = new Point(to.getX(), to.getY());
+        Path<Point> expected = Dijkstra.findPath(WeightedGraph.of(remaining), start, dest);
+        Path<Point> after = map.findShortestPath(from.getShortName(), to.getShortName());
+        assertEquals(expected.getCost(), after.getCost(), EPSILON);
+        assertFollowsGraph(remaining, start, dest, after);
+    }
+
+    @Test
+    public void testShortcutsAreUnpacked() {
+        // a line of nodes, where contracting the inner nodes needs shortcuts that
+        // skip other shortcuts
+        Graph<String, Double> graph = new Graph<>();
+        String[] line = {"a", "b", "c", "d", "e", "f", "g"};
+        for (String node : line) {
+            graph.addNode(node);
+        }
+        for (int i = 0; i + 1 < line.length; i++) {
+            graph.addEdge(line[i], line[i + 1], i + 1.0);
+            graph.addEdge(line[i + 1], line[i], i + 1.0);
+        }
+        graph.addEdge("a", "g", 100.0);
+        ContractionHierarchy<String> lineHierarchy = ContractionHierarchy.of(WeightedGraph.of(graph));
+        assertTrue(lineHierarchy.totalEdges() >= graph.totalEdges());
+        Path<String> path = lineHierarchy.findPath("a", "g");
+        assertEquals(21.0, path.getCost(), EPSILON);
+        assertFollowsGraph(graph, "a", "g", path);
+        assertEquals(20.0, lineHierarchy.findPath("g", "b").getCost(), EPSILON);
+    }
+
+    @Test
+    public void testSameStartAndDest() {
+        Path<Point> path = hierarchy.findPath(points.get(0), points.get(0));
+        assertEquals(0.0, path.getCost(), EPSILON);
+        assertFalse(path.iterator().hasNext());
+    }
+
+    @Test
+    public void testNoPath() {
+        Graph<String, Double> graph = new Graph<>();
+        graph.addNode("a");
+        graph.addNode("b");
+        graph.addNode("c");
+        graph.addEdge("b", "a", 1.0);
+        graph.addEdge("c", "b", 1.0);
+        ContractionHierarchy<String> oneWay = ContractionHierarchy.of(WeightedGraph.of(graph));
+        assertNull(oneWay.findPath("a", "c"));
+        assertEquals(2.0, oneWay.findPath("c", "a").getCost(), EPSILON);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        ContractionHierarchy.of(null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testEndNotInGraph() {
+        hierarchy.findPath(points.get(0), new Point(-1.0, -1.0));
+    }
+
+    /**
+     * Asserts that path goes from start to dest along edges of graph, each segment
+     * costing as much as its edge
+     */
+    private static <T> void assertFollowsGraph(Graph<T, Double> graph, T start, T dest, Path<T> path) {
+        assertEquals(start, path.getStart());
+        assertEquals(dest, path.getEnd());
+        T at = start;
+        for (Path<T>.Segment segment : path) {
+            assertEquals(at, segment.getStart());
+            assertTrue(graph.getLabel(segment.getStart(), segment.getEnd()).contains(segment.getCost()));
+            at = segment.getEnd();
+        }
+    }
+}
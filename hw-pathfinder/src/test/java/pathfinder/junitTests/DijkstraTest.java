@@ -1,11 +1,18 @@
 package pathfinder.junitTests;
 
 import graph.Graph;
+import graph.WeightedGraph;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 import pathfinder.Dijkstra;
+import pathfinder.datastructures.Path;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
 
 public class DijkstraTest {
     @Rule
@@ -58,4 +65,87 @@ public class DijkstraTest {
     public void testEndNotInGraph(){
         Dijkstra.findPath(graph1, "A", "E");
     }
+
+    @Test
+    public void testShortestPath() {
+        Path<String> path = Dijkstra.findPath(graph1, "A", "D");
+        assertEquals(7.0, path.getCost(), 0.0);
+        assertEquals("D", path.getEnd());
+    }
+
+    @Test
+    public void testNoPath() {
+        assertNull(Dijkstra.findPath(graph1, "D", "A"));
+    }
+
+    @Test
+    public void testWeightedMatchesGraph() {
+        WeightedGraph<String> weighted = WeightedGraph.of(graph1);
+        for (String start : graph1.listNodes()) {
+            for (String dest : graph1.listNodes()) {
+                assertEquals(Dijkstra.findPath(graph1, start, dest),
+                        Dijkstra.findPath(weighted, start, dest));
+            }
+        }
+    }
+
+    @Test
+    public void testWeightedPathToSelf() {
+        Path<String> path = Dijkstra.findPath(WeightedGraph.of(graph1), "B", "B");
+        assertEquals(new Path<>("B"), path);
+    }
+
+    @Test
+    public void testCostsMatchRelaxation() {
+        // many parallel and crossing edges, so most nodes are first reached for more
+        // than their final cost and have their cost lowered while queued
+        Random random = new Random(331);
+        Graph<Integer, Double> graph = new Graph<>();
+        int nodes = 60;
+        for (int node = 0; node < nodes; node++) {
+            graph.addNode(node);
+        }
+        for (int edge = 0; edge < 600; edge++) {
+            int parent = random.nextInt(nodes);
+            int child = random.nextInt(nodes);
+            double cost = random.nextInt(100);
+            if (!(graph.getLabel(parent, child).contains(cost))) {
+                graph.addEdge(parent, child, cost);
+            }
+        }
+        // costs from node 0 by relaxing every edge until nothing changes
+        double[] expected = new double[nodes];
+        Arrays.fill(expected, Double.POSITIVE_INFINITY);
+        expected[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int node = 0; node < nodes; node++) {
+                for (Graph.Edge<Integer, Double> edge : graph.listEdges(node)) {
+                    if (expected[node] + edge.getLabel() < expected[edge.getChild()]) {
+                        expected[edge.getChild()] = expected[node] + edge.getLabel();
+                        changed = true;
+                    }
+                }
+            }
+        }
+        WeightedGraph<Integer> weighted = WeightedGraph.of(graph);
+        for (int dest = 0; dest < nodes; dest++) {
+            Path<Integer> path = Dijkstra.findPath(graph, 0, dest);
+            Path<Integer> weightedPath = Dijkstra.findPath(weighted, 0, dest);
+            if (expected[dest] == Double.POSITIVE_INFINITY) {
+                assertNull(path);
+                assertNull(weightedPath);
+            } else {
+                assertEquals(expected[dest], path.getCost(), 0.0);
+                assertEquals(expected[dest], weightedPath.getCost(), 0.0);
+                assertEquals(Integer.valueOf(dest), path.getEnd());
+            }
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testWeightedEndNotInGraph() {
+        Dijkstra.findPath(WeightedGraph.of(graph1), "A", "E");
+    }
 }
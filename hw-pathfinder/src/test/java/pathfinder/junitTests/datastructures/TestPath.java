@@ -72,6 +72,42 @@ public class TestPath {
         assertEquals(path3, path3);
     }
 
+    @Test
+    public void testExtendedBranchesAreIndependent() {
+        Path<Point> base = new Path<>(new Point(0.0, 0.0)).extend(new Point(1.0, 0.0), 1.0D);
+        Path<Point> left = base.extend(new Point(1.0, 1.0), 1.0D);
+        Path<Point> right = base.extend(new Point(2.0, 0.0), 3.0D);
+        assertEquals("(0.0, 0.0) =(1.000)=> (1.0, 0.0)", base.toString());
+        assertEquals("(0.0, 0.0) =(1.000)=> (1.0, 0.0) =(1.000)=> (1.0, 1.0)", left.toString());
+        assertEquals("(0.0, 0.0) =(1.000)=> (1.0, 0.0) =(3.000)=> (2.0, 0.0)", right.toString());
+        assertEquals(4.0D, right.getCost(), EPSILON);
+        assertNotEquals(left, right);
+        // built separately, with no shared segments
+        Path<Point> copy = new Path<>(new Point(0.0, 0.0)).extend(new Point(1.0, 0.0), 1.0D)
+                .extend(new Point(1.0, 1.0), 1.0D);
+        assertEquals(copy, left);
+        assertEquals(copy.hashCode(), left.hashCode());
+    }
+
+    @Test
+    public void testLongPathIteratesInOrder() {
+        Path<Point> path = new Path<>(new Point(0.0, 0.0));
+        Path<Point> other = new Path<>(new Point(0.0, 0.0));
+        for (int i = 1; i <= 100000; i++) {
+            path = path.extend(new Point(i, 0.0), 1.0D);
+            other = other.extend(new Point(i, 0.0), 1.0D);
+        }
+        assertEquals(100000.0D, path.getCost(), EPSILON);
+        int expected = 0;
+        for (Path<Point>.Segment segment : path) {
+            assertEquals(new Point(expected, 0.0), segment.getStart());
+            expected++;
+        }
+        assertEquals(100000, expected);
+        assertEquals(other, path);
+        assertEquals(other.hashCode(), path.hashCode());
+    }
+
     private static Path<Point> path1, path2, path3;
 
     @BeforeClass